@@ -19,7 +19,7 @@ const ContentRenderer = ({ content }) => {
               key={index}
               onClick={(e) => {
                 e.stopPropagation();
-                navigate(`/search?q=${tag}`); // Navigate to search
+                navigate(`/search?q=${encodeURIComponent("#" + tag)}`); // Navigate to search
               }}
               className="text-blue-600 font-medium hover:underline cursor-pointer"
             >
@@ -14,6 +14,7 @@ export default function SidebarLeft({ activeFilter, setActiveFilter }) {
   const navigate = useNavigate();
   const token = localStorage.getItem("token");
   const [user, setUser] = useState(null);
+  const [unread, setUnread] = useState(0);
 
   // Helper for Images
   const getFullImageUrl = (path) => {
@@ -38,6 +39,17 @@ export default function SidebarLeft({ activeFilter, setActiveFilter }) {
     fetchUser();
   }, [token]);
 
+  // Unread badge: a cheap counter read, refreshed on navigation (e.g. after opening Notifications)
+  useEffect(() => {
+    if (!token) return;
+    fetch(`${API_BASE_URL}/notifications/unread-count`, {
+      headers: { "Authorization": `Bearer ${token}` }
+    })
+      .then((res) => (res.ok ? res.json() : null))
+      .then((data) => data && setUnread(data.count))
+      .catch((error) => console.error(error));
+  }, [token, location.pathname]);
+
   const handleLogout = (e) => {
     e.stopPropagation();
     if(window.confirm("Log out of your account?")) {
@@ -47,7 +59,7 @@ export default function SidebarLeft({ activeFilter, setActiveFilter }) {
   };
 
   // SMART NAV ITEM: Handles Links AND Filters
-  const NavItem = ({ to, icon: Icon, label, filterType }) => {
+  const NavItem = ({ to, icon: Icon, label, filterType, badge }) => {
     
     // Active Logic: If filterType exists, check filter state. If not, check URL path.
     const isActive = filterType 
@@ -81,10 +93,17 @@ export default function SidebarLeft({ activeFilter, setActiveFilter }) {
             flex items-center gap-4 px-4 py-3 rounded-full transition-all duration-200
             ${isActive ? "bg-slate-100 text-slate-900" : "text-slate-500 hover:bg-slate-50 hover:text-slate-900"}
         `}>
-          <Icon 
-            className={`h-7 w-7 transition-colors ${isActive ? "text-indigo-600" : "text-slate-500 group-hover:text-slate-700"}`} 
-            strokeWidth={isActive ? 2.5 : 2} 
-          />
+          <div className="relative">
+            <Icon 
+              className={`h-7 w-7 transition-colors ${isActive ? "text-indigo-600" : "text-slate-500 group-hover:text-slate-700"}`} 
+              strokeWidth={isActive ? 2.5 : 2} 
+            />
+            {badge > 0 && (
+              <span className="absolute -top-1.5 -right-1.5 min-w-[18px] h-[18px] px-1 rounded-full bg-indigo-600 text-white text-[10px] font-bold flex items-center justify-center">
+                {badge > 99 ? "99+" : badge}
+              </span>
+            )}
+          </div>
           <span className={`text-xl hidden xl:block ${isActive ? "font-bold" : "font-medium"}`}>
               {label}
           </span>
@@ -104,7 +123,7 @@ export default function SidebarLeft({ activeFilter, setActiveFilter }) {
         {/* Pages */}
         <NavItem to="/" icon={Home} label="Home" />
         <NavItem to="/explore" icon={Search} label="Explore" />
-        <NavItem to="/notifications" icon={Bell} label="Notifications" />
+        <NavItem to="/notifications" icon={Bell} label="Notifications" badge={unread} />
         <NavItem to={`/users/${user?.id}`} icon={User} label="Profile" />
         
         <div className="my-4 px-4"><div className="h-px bg-slate-200 w-full"></div></div>
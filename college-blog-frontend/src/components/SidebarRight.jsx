@@ -65,7 +65,7 @@ export default function SidebarRight() {
                         <div 
                             key={idx} 
                             className="cursor-pointer group flex items-center justify-between"
-                            onClick={() => navigate(`/search?q=${tag}`)}
+                            onClick={() => navigate(`/search?q=${encodeURIComponent("#" + tag)}`)}
                         >
                             <div>
                                 <p className="text-[10px] text-slate-400 font-medium mb-0.5 uppercase tracking-wider">Trending</p>
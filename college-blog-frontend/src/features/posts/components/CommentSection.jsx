@@ -2,24 +2,31 @@ import { useState, useEffect } from "react";
 import { Avatar, AvatarFallback, AvatarImage } from "@/components/ui/avatar";
 import { Button } from "@/components/ui/button";
 import { Textarea } from "@/components/ui/textarea";
-import { Loader2, Send, Trash2 } from "lucide-react";
+import { CornerDownRight, Loader2, Reply, Send, Trash2, X } from "lucide-react";
 import { API_BASE_URL } from "@/utils/api";
 import VerificationBadge from "@/components/VerificationBadge";
 
+const PAGE_SIZE = 20;
+
 export function CommentSection({
   postId,
+  commentCount,
   onCommentAdded,
   onCommentDeleted,
-  onLoaded,
 }) {
   const token = localStorage.getItem("token");
 
   const [comments, setComments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [currentUser, setCurrentUser] = useState(null);
 
   const [newComment, setNewComment] = useState("");
   const [submitting, setSubmitting] = useState(false);
+  // comment being replied to: { id, rootId, authorName }
+  const [replyTo, setReplyTo] = useState(null);
+  const [loadingReplies, setLoadingReplies] = useState(null);
 
   // helper: build full URL for profile image from backend
   const getAuthorImageUrl = (path) => {
@@ -37,9 +44,9 @@ export function CommentSection({
         });
         if (userRes.ok) setCurrentUser(await userRes.json());
 
-        // 2. comments
+        // 2. first page of comments (oldest first)
         const commentsRes = await fetch(
-          `${API_BASE_URL}/posts/${postId}/comments`,
+          `${API_BASE_URL}/posts/${postId}/comments?size=${PAGE_SIZE}`,
           {
             headers: { Authorization: `Bearer ${token}` },
           }
@@ -47,9 +54,8 @@ export function CommentSection({
 
         if (commentsRes.ok) {
           const data = await commentsRes.json();
-          setComments(data);
-
-          if (onLoaded) onLoaded(data.length);
+          setComments(data.items);
+          setNextCursor(data.nextCursor);
         }
       } catch (e) {
         console.error(e);
@@ -61,6 +67,31 @@ export function CommentSection({
     if (postId) initData();
   }, [postId, token]);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const res = await fetch(
+        `${API_BASE_URL}/posts/${postId}/comments?size=${PAGE_SIZE}&cursor=${encodeURIComponent(nextCursor)}`,
+        {
+          headers: { Authorization: `Bearer ${token}` },
+        }
+      );
+      if (!res.ok) return;
+      const data = await res.json();
+      // a comment we just posted may come back in a later page
+      setComments((prev) => {
+        const seen = new Set(prev.map((c) => c.id));
+        return [...prev, ...data.items.filter((c) => !seen.has(c.id))];
+      });
+      setNextCursor(data.nextCursor);
+    } catch (e) {
+      console.error(e);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleSubmit = async () => {
     if (!newComment.trim()) return;
     setSubmitting(true);
@@ -71,13 +102,24 @@ export function CommentSection({
           Authorization: `Bearer ${token}`,
           "Content-Type": "application/json",
         },
-        body: JSON.stringify({ content: newComment }),
+        body: JSON.stringify({ content: newComment, parentId: replyTo?.id }),
       });
 
       if (res.ok) {
         const savedComment = await res.json();
-        setComments((prev) => [...prev, savedComment]);
+        if (replyTo) {
+          setComments((prev) =>
+            prev.map((root) =>
+              root.id === replyTo.rootId
+                ? insertReply(root, replyTo.id, savedComment)
+                : root
+            )
+          );
+        } else {
+          setComments((prev) => [...prev, { ...savedComment, replies: [] }]);
+        }
         setNewComment("");
+        setReplyTo(null);
         if (onCommentAdded) onCommentAdded();
       }
     } catch (e) {
@@ -87,12 +129,76 @@ export function CommentSection({
     }
   };
 
-  const handleDelete = async (commentId) => {
+  // Replies of a thread are kept flat, in thread order (a reply right after its parent)
+  const insertReply = (root, parentId, reply) => {
+    const replies = [...(root.replies || [])];
+    let at = replies.length;
+    const parentIndex = replies.findIndex((r) => r.id === parentId);
+    if (parentIndex >= 0) {
+      at = parentIndex + 1;
+      while (at < replies.length && replies[at].depth > replies[parentIndex].depth) at++;
+    }
+    replies.splice(at, 0, reply);
+    return { ...root, replies, replyCount: (root.replyCount || 0) + 1 };
+  };
+
+  // Next page of a thread's replies (the first few came with the comment)
+  const loadReplies = async (root) => {
+    setLoadingReplies(root.id);
+    try {
+      const cursor = root.repliesCursor
+        ? `&cursor=${encodeURIComponent(root.repliesCursor)}`
+        : "";
+      const res = await fetch(
+        `${API_BASE_URL}/posts/${postId}/comments/${root.id}/replies?size=${PAGE_SIZE}${cursor}`,
+        {
+          headers: { Authorization: `Bearer ${token}` },
+        }
+      );
+      if (!res.ok) return;
+      const data = await res.json();
+      setComments((prev) =>
+        prev.map((c) => {
+          if (c.id !== root.id) return c;
+          const seen = new Set((c.replies || []).map((r) => r.id));
+          return {
+            ...c,
+            replies: [...(c.replies || []), ...data.items.filter((r) => !seen.has(r.id))],
+            repliesCursor: data.nextCursor,
+            repliesDone: !data.nextCursor,
+          };
+        })
+      );
+    } catch (e) {
+      console.error(e);
+    } finally {
+      setLoadingReplies(null);
+    }
+  };
+
+  const handleDelete = async (comment) => {
     if (!confirm("Delete this comment?")) return;
+    const commentId = comment.id;
+    // replies go with the comment
+    const removed = 1 + (comment.replyCount || 0);
 
     const previousComments = [...comments];
-    setComments((prev) => prev.filter((c) => c.id !== commentId));
-    if (onCommentDeleted) onCommentDeleted();
+    setComments((prev) =>
+      prev
+        .filter((c) => c.id !== commentId)
+        .map((root) => {
+          const index = (root.replies || []).findIndex((r) => r.id === commentId);
+          if (index < 0) return root;
+          let end = index + 1;
+          while (end < root.replies.length && root.replies[end].depth > root.replies[index].depth) end++;
+          return {
+            ...root,
+            replies: [...root.replies.slice(0, index), ...root.replies.slice(end)],
+            replyCount: Math.max(0, (root.replyCount || 0) - removed),
+          };
+        })
+    );
+    if (onCommentDeleted) onCommentDeleted(removed);
 
     try {
       const res = await fetch(
@@ -105,25 +211,104 @@ export function CommentSection({
       if (!res.ok) throw new Error("Failed");
     } catch (e) {
       setComments(previousComments);
-      if (onCommentAdded) onCommentAdded(); // revert count
+      if (onCommentDeleted) onCommentDeleted(-removed); // revert count
       alert("Could not delete comment.");
     }
   };
 
+  // One comment card; replies are indented by depth
+  const renderComment = (comment, root) => (
+    <div
+      key={comment.id}
+      className="flex gap-3 group animate-in fade-in slide-in-from-bottom-2 relative"
+      style={{ marginLeft: `${Math.min(comment.depth || 0, 4) * 1.5}rem` }}
+    >
+      {/* Avatar with backend profile photo */}
+      <Avatar className="h-8 w-8 mt-1 border border-zinc-200">
+        <AvatarImage
+          src={getAuthorImageUrl(comment.authorImageUrl)}
+          className="object-cover"
+        />
+        <AvatarFallback>
+          {comment.authorName?.[0] || "U"}
+        </AvatarFallback>
+      </Avatar>
+
+      <div className="flex-1">
+        <div className="bg-zinc-50 p-3 rounded-2xl rounded-tl-none border border-zinc-100 hover:bg-white transition-colors shadow-sm">
+          <div className="flex items-center gap-2 mb-1">
+            <span className="text-sm font-bold text-slate-900">
+              {comment.authorName}
+            </span>
+
+            {(comment.authorVerified ||
+              comment.authorRole === "TEACHER") && (
+              <VerificationBadge />
+            )}
+
+            <span className="text-xs text-slate-400">
+              •{" "}
+              {new Date(comment.createdAt).toLocaleDateString(
+                "en-IN",
+                {
+                  day: "2-digit",
+                  month: "short",
+                  year: "numeric",
+                }
+              )}
+            </span>
+          </div>
+          <p className="text-sm text-slate-700 leading-relaxed">
+            {comment.content}
+          </p>
+        </div>
+        <button
+          onClick={() =>
+            setReplyTo({ id: comment.id, rootId: root.id, authorName: comment.authorName })
+          }
+          className="mt-1 ml-3 text-xs font-medium text-slate-400 hover:text-indigo-600 inline-flex items-center gap-1"
+        >
+          <Reply className="h-3 w-3" /> Reply
+        </button>
+      </div>
+
+      {/* Delete (only owner or admin, backend enforces too) */}
+      {currentUser && currentUser.id === comment.authorId && (
+        <button
+          onClick={() => handleDelete(comment)}
+          className="absolute top-2 right-2 p-1.5 text-zinc-300 hover:text-red-500 hover:bg-red-50 opacity-0 group-hover:opacity-100 transition-all rounded-full"
+          title="Delete"
+        >
+          <Trash2 className="h-3.5 w-3.5" />
+        </button>
+      )}
+    </div>
+  );
+
   return (
     <div className="mt-6" id="comments-section">
       <h3 className="text-lg font-bold text-slate-900 mb-4 px-1">
         Comments{" "}
         <span className="text-slate-400 font-normal text-sm ml-1">
-          ({comments.length})
+          ({commentCount ?? comments.length})
         </span>
       </h3>
 
       {/* New comment composer */}
       <div className="flex gap-3 mb-8 bg-white p-4 rounded-xl border border-zinc-200 shadow-sm">
         <div className="flex-1">
+          {replyTo && (
+            <div className="flex items-center justify-between text-xs text-slate-500 mb-2">
+              <span>
+                Replying to <span className="font-semibold">{replyTo.authorName}</span>
+              </span>
+              <button onClick={() => setReplyTo(null)} title="Cancel reply">
+                <X className="h-3.5 w-3.5" />
+              </button>
+            </div>
+          )}
           <Textarea
-            placeholder="Write a thoughtful comment..."
+            placeholder={replyTo ? "Write a reply..." : "Write a thoughtful comment..."}
             className="min-h-[80px] border-zinc-200 focus-visible:ring-indigo-500 resize-none bg-zinc-50"
             value={newComment}
             onChange={(e) => setNewComment(e.target.value)}
@@ -160,64 +345,46 @@ export function CommentSection({
             </p>
           )}
 
-          {comments.map((comment) => (
-            <div
-              key={comment.id}
-              className="flex gap-3 group animate-in fade-in slide-in-from-bottom-2 relative"
-            >
-              {/* Avatar with backend profile photo */}
-              <Avatar className="h-8 w-8 mt-1 border border-zinc-200">
-                <AvatarImage
-                  src={getAuthorImageUrl(comment.authorImageUrl)}
-                  className="object-cover"
-                />
-                <AvatarFallback>
-                  {comment.authorName?.[0] || "U"}
-                </AvatarFallback>
-              </Avatar>
-
-              <div className="flex-1">
-                <div className="bg-zinc-50 p-3 rounded-2xl rounded-tl-none border border-zinc-100 hover:bg-white transition-colors shadow-sm">
-                  <div className="flex items-center gap-2 mb-1">
-                    <span className="text-sm font-bold text-slate-900">
-                      {comment.authorName}
-                    </span>
-
-                    {(comment.authorVerified ||
-                      comment.authorRole === "TEACHER") && (
-                      <VerificationBadge />
-                    )}
+          {comments.map((root) => {
+            const shown = root.replies?.length || 0;
+            return (
+              <div key={root.id} className="space-y-3">
+                {renderComment(root, root)}
+                {(root.replies || []).map((reply) => renderComment(reply, root))}
 
-                    <span className="text-xs text-slate-400">
-                      •{" "}
-                      {new Date(comment.createdAt).toLocaleDateString(
-                        "en-IN",
-                        {
-                          day: "2-digit",
-                          month: "short",
-                          year: "numeric",
-                        }
-                      )}
-                    </span>
-                  </div>
-                  <p className="text-sm text-slate-700 leading-relaxed">
-                    {comment.content}
-                  </p>
-                </div>
+                {!root.repliesDone && root.replyCount > shown && (
+                  <button
+                    onClick={() => loadReplies(root)}
+                    disabled={loadingReplies === root.id}
+                    className="ml-11 text-xs font-medium text-indigo-600 hover:underline inline-flex items-center gap-1"
+                  >
+                    {loadingReplies === root.id ? (
+                      <Loader2 className="h-3 w-3 animate-spin" />
+                    ) : (
+                      <CornerDownRight className="h-3 w-3" />
+                    )}
+                    View {root.replyCount - shown} more{" "}
+                    {root.replyCount - shown === 1 ? "reply" : "replies"}
+                  </button>
+                )}
               </div>
+            );
+          })}
 
-              {/* Delete (only owner or admin, backend enforces too) */}
-              {currentUser && currentUser.id === comment.authorId && (
-                <button
-                  onClick={() => handleDelete(comment.id)}
-                  className="absolute top-2 right-2 p-1.5 text-zinc-300 hover:text-red-500 hover:bg-red-50 opacity-0 group-hover:opacity-100 transition-all rounded-full"
-                  title="Delete"
-                >
-                  <Trash2 className="h-3.5 w-3.5" />
-                </button>
+          {nextCursor && (
+            <Button
+              variant="outline"
+              className="w-full"
+              onClick={loadMore}
+              disabled={loadingMore}
+            >
+              {loadingMore ? (
+                <Loader2 className="h-4 w-4 animate-spin" />
+              ) : (
+                "Load more comments"
               )}
-            </div>
-          ))}
+            </Button>
+          )}
         </div>
       )}
     </div>
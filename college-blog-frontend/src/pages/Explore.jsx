@@ -24,7 +24,7 @@ export default function Explore() {
         ]);
 
         if (tagsRes.ok) setTrendingTags(await tagsRes.json());
-        if (postsRes.ok) setPopularPosts(await postsRes.json());
+        if (postsRes.ok) setPopularPosts((await postsRes.json()).items);
       } catch (e) {
         console.error("Explore fetch error", e);
       } finally {
@@ -38,9 +38,8 @@ export default function Explore() {
   const handleSearch = (e) => {
     e.preventDefault();
     if (!searchTerm.trim()) return;
-    // Strip '#' if user typed it, then navigate to Search Page
-    const query = searchTerm.replace("#", "");
-    navigate(`/search?q=${query}`);
+    // "#tag" searches the hashtag, plain words search post text
+    navigate(`/search?q=${encodeURIComponent(searchTerm.trim())}`);
   };
 
   return (
@@ -76,7 +75,7 @@ export default function Explore() {
                   key={tag}
                   variant="secondary"
                   className="px-4 py-2 text-sm bg-zinc-50 border border-zinc-200 text-zinc-700 hover:border-indigo-300 hover:bg-indigo-50 hover:text-indigo-600 cursor-pointer transition rounded-full"
-                  onClick={() => navigate(`/search?q=${tag}`)} // REUSE SEARCH PAGE
+                  onClick={() => navigate(`/search?q=${encodeURIComponent("#" + tag)}`)} // REUSE SEARCH PAGE
                 >
                   #{tag}
                 </Badge>
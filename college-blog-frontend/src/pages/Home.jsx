@@ -11,6 +11,8 @@ export default function Home() {
   const [posts, setPosts] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const token = localStorage.getItem("token");
 
   // 1. Get Filter State from AppLayout (Context)
@@ -28,7 +30,8 @@ export default function Home() {
         });
         if (!response.ok) throw new Error("Failed to load feed");
         const data = await response.json();
-        setPosts(data);
+        setPosts(data.items);
+        setNextCursor(data.nextCursor);
       } catch (err) {
         console.error(err);
         setError("Could not load posts.");
@@ -39,6 +42,26 @@ export default function Home() {
     fetchFeed();
   }, [token]);
 
+  // Feed is paginated: ask for the page after the last post we have
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const response = await fetch(`${API_BASE_URL}/feed/all?cursor=${encodeURIComponent(nextCursor)}`, {
+        method: "GET",
+        headers: { "Authorization": `Bearer ${token}` }
+      });
+      if (!response.ok) throw new Error("Failed to load more posts");
+      const data = await response.json();
+      setPosts((prev) => [...prev, ...data.items]);
+      setNextCursor(data.nextCursor);
+    } catch (err) {
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // 2. Filter Logic (Uses the Context ActiveFilter)
   const filteredPosts = posts.filter((post) => {
     if (activeFilter === "ALL") return true;
@@ -145,6 +168,11 @@ export default function Home() {
                 }}
               />
             ))}
+            {nextCursor && (
+              <Button variant="outline" className="w-full" onClick={loadMore} disabled={loadingMore}>
+                {loadingMore ? "Loading..." : "Load more"}
+              </Button>
+            )}
           </div>
         )}
     </div>
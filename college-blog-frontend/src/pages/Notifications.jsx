@@ -4,22 +4,43 @@ import { Avatar, AvatarFallback, AvatarImage } from "@/components/ui/avatar";
 import { Loader2, Heart, MessageCircle, UserPlus, BellOff } from "lucide-react";
 import { API_BASE_URL } from "@/utils/api";
 
+const PAGE_SIZE = 20;
+
 export default function Notifications() {
   const [notifications, setNotifications] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
   const token = localStorage.getItem("token");
 
-  // 1. Fetch Notifications from Backend
+  // Everything last updated up to the newest one shown counts as seen (one bulk update on the server).
+  // updatedAt, not id: actors merged into an old notification after this keep it unread
+  const markRead = async (items) => {
+    if (!items.some((n) => !n.read)) return;
+    const seenUpTo = items.map((n) => n.updatedAt).reduce((a, b) => (a > b ? a : b));
+    try {
+      await fetch(`${API_BASE_URL}/notifications/mark-read?seenUpTo=${encodeURIComponent(seenUpTo)}`, {
+        method: "POST",
+        headers: { Authorization: `Bearer ${token}` },
+      });
+    } catch (e) {
+      console.error("Failed to mark notifications read", e);
+    }
+  };
+
+  // 1. Fetch Notifications from Backend (first page)
   useEffect(() => {
     const fetchNotifications = async () => {
       try {
-        const res = await fetch(`${API_BASE_URL}/notifications`, {
+        const res = await fetch(`${API_BASE_URL}/notifications?size=${PAGE_SIZE}`, {
           headers: { Authorization: `Bearer ${token}` },
         });
         if (res.ok) {
             const data = await res.json();
-            setNotifications(data);
+            setNotifications(data.items);
+            setNextCursor(data.nextCursor);
+            markRead(data.items);
         }
       } catch (e) {
         console.error("Failed to load notifications", e);
@@ -30,6 +51,29 @@ export default function Notifications() {
     if (token) fetchNotifications();
   }, [token]);
 
+  const loadMore = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const res = await fetch(
+        `${API_BASE_URL}/notifications?size=${PAGE_SIZE}&cursor=${encodeURIComponent(nextCursor)}`,
+        { headers: { Authorization: `Bearer ${token}` } }
+      );
+      if (!res.ok) return;
+      const data = await res.json();
+      // a row that got new activity may have moved up since the first page
+      setNotifications((prev) => {
+        const seen = new Set(prev.map((n) => n.id));
+        return [...prev, ...data.items.filter((n) => !seen.has(n.id))];
+      });
+      setNextCursor(data.nextCursor);
+    } catch (e) {
+      console.error("Failed to load notifications", e);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // 2. Helper: Choose Icon based on Type
   const getIcon = (type) => {
     switch (type) {
@@ -60,6 +104,17 @@ export default function Notifications() {
     }
   };
 
+  // Coalesced rows: "Asha and 24 others"
+  const getOthers = (n) => {
+    const others = (n.actorCount || 1) - 1;
+    if (others <= 0) return null;
+    return (
+      <span className="text-zinc-900">
+        {" "}and <span className="font-bold">{others} {others === 1 ? "other" : "others"}</span>
+      </span>
+    );
+  };
+
   // 5. Handle Click Navigation
   const handleClick = (n) => {
     if (n.type === "FOLLOW") {
@@ -90,11 +145,11 @@ export default function Notifications() {
               <div 
                 key={n.id} 
                 onClick={() => handleClick(n)}
-                className={`p-4 flex gap-4 hover:bg-zinc-50 cursor-pointer transition-colors ${!n.isRead ? "bg-indigo-50/40" : ""}`}
+                className={`p-4 flex gap-4 hover:bg-zinc-50 cursor-pointer transition-colors ${!n.read ? "bg-indigo-50/40" : ""}`}
               >
                 {/* Avatar with Icon Badge */}
                 <div className="relative flex-shrink-0">
-                    <Avatar className="h-12 w-12 border border-zinc-100 shadow-sm">
+                    <Avatar className="h-12 w-12 border border-zinc-100 shadow-sm" title={(n.recentActors || []).map((a) => `${a.firstname} ${a.lastname}`).join(", ")}>
                         <AvatarImage src={n.actorImageUrl} className="object-cover" />
                         <AvatarFallback className="bg-zinc-200 text-zinc-600 font-bold">{n.actorName?.[0]}</AvatarFallback>
                     </Avatar>
@@ -106,21 +161,31 @@ export default function Notifications() {
                 {/* Content */}
                 <div className="flex-1 min-w-0">
                     <p className="text-sm text-zinc-900 leading-snug">
-                        <span className="font-bold hover:underline">{n.actorName}</span> {getMessage(n)}
+                        <span className="font-bold hover:underline">{n.actorName}</span>{getOthers(n)} {getMessage(n)}
                     </p>
                     <p className="text-xs text-zinc-400 mt-1.5 font-medium">
-                        {new Date(n.createdAt).toLocaleDateString(undefined, { month: 'short', day: 'numeric', hour: '2-digit', minute: '2-digit' })}
+                        {new Date(n.updatedAt || n.createdAt).toLocaleDateString(undefined, { month: 'short', day: 'numeric', hour: '2-digit', minute: '2-digit' })}
                     </p>
                 </div>
 
                 {/* Unread Indicator Dot */}
-                {!n.isRead && (
+                {!n.read && (
                     <div className="flex items-center justify-center">
                         <div className="h-2.5 w-2.5 rounded-full bg-indigo-600"></div>
                     </div>
                 )}
               </div>
             ))}
+
+            {nextCursor && (
+              <button
+                onClick={loadMore}
+                disabled={loadingMore}
+                className="w-full p-3 text-sm font-medium text-indigo-600 hover:bg-zinc-50 flex justify-center"
+              >
+                {loadingMore ? <Loader2 className="h-4 w-4 animate-spin" /> : "Load older notifications"}
+              </button>
+            )}
           </div>
         ) : (
           <div className="flex flex-col items-center justify-center py-20 text-zinc-400">
@@ -75,23 +75,13 @@ export default function PostDetails() {
   };
 
   // State Handler: Delete Comment
-  const handleCommentDelete = () => {
+  // removed: the comment plus its replies
+  const handleCommentDelete = (removed = 1) => {
     setPost((prev) => {
       if (!prev) return null;
       return {
         ...prev,
-        commentCount: Math.max(0, (prev.commentCount || 0) - 1),
-      };
-    });
-  };
-
-  // Initial comments load from CommentSection
-  const handleCommentsLoaded = (count) => {
-    setPost((prev) => {
-      if (!prev) return null;
-      return {
-        ...prev,
-        commentCount: count,
+        commentCount: Math.max(0, (prev.commentCount || 0) - removed),
       };
     });
   };
@@ -159,7 +149,7 @@ export default function PostDetails() {
         <div id="comments-section" className="px-0 md:px-0 mt-4">
           <CommentSection
             postId={post.id}
-            onLoaded={handleCommentsLoaded}
+            commentCount={post.commentCount}
             onCommentAdded={handleCommentAdd}
             onCommentDeleted={handleCommentDelete}
           />
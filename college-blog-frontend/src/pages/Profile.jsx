@@ -32,6 +32,7 @@ export default function Profile() {
   const [user, setUser] = useState(null);
   const [currentUserMe, setCurrentUserMe] = useState(null); 
   const [userPosts, setUserPosts] = useState([]); 
+  const [postsCursor, setPostsCursor] = useState(null);
   const [loading, setLoading] = useState(true);
   
   const isOwnProfile = !userId || (currentUserMe && String(currentUserMe.id) === String(userId));
@@ -83,7 +84,8 @@ export default function Profile() {
           });
           if (postsRes.ok) {
             const postsData = await postsRes.json();
-            if (Array.isArray(postsData)) setUserPosts(postsData);
+            if (Array.isArray(postsData.items)) setUserPosts(postsData.items);
+            setPostsCursor(postsData.nextCursor);
           }
         }
 
@@ -98,6 +100,21 @@ export default function Profile() {
     else navigate("/login");
   }, [token, userId, navigate]);
 
+  const loadMorePosts = async () => {
+    if (!postsCursor || !user?.id) return;
+    try {
+      const res = await fetch(`${API_BASE_URL}/posts/users/${user.id}/posts?cursor=${encodeURIComponent(postsCursor)}`, {
+          headers: { "Authorization": `Bearer ${token}` }
+      });
+      if (!res.ok) return;
+      const data = await res.json();
+      setUserPosts(prev => [...prev, ...data.items]);
+      setPostsCursor(data.nextCursor);
+    } catch (error) {
+      console.error("Error loading more posts:", error);
+    }
+  };
+
   const handlePostDelete = (deletedPostId) => {
     setUserPosts(prev => prev.filter(p => p.id !== deletedPostId));
   };
@@ -307,9 +324,14 @@ export default function Profile() {
 
         <div className="space-y-4">
             {userPosts.length > 0 ? (
-                userPosts.map(post => (
+                <>
+                {userPosts.map(post => (
                     <PostCard key={post.id} post={post} onDelete={handlePostDelete} />
-                ))
+                ))}
+                {postsCursor && (
+                    <Button variant="outline" className="w-full" onClick={loadMorePosts}>Load more</Button>
+                )}
+                </>
             ) : (
                 <div className="text-center py-16 bg-white rounded-xl border border-dashed border-zinc-200">
                     <div className="bg-zinc-50 h-12 w-12 rounded-full flex items-center justify-center mx-auto mb-3">
@@ -22,14 +22,19 @@ export default function Search() {
       try {
         const headers = token ? { "Authorization": `Bearer ${token}` } : {};
 
+        // "#java" searches the hashtag, anything else the post text
+        const postSearch = query.startsWith("#")
+            ? `tag=${encodeURIComponent(query.slice(1))}`
+            : `q=${encodeURIComponent(query)}`;
+
         // Run both searches in parallel
         const [postsRes, usersRes] = await Promise.all([
-            fetch(`${API_BASE_URL}/posts/search?tag=${query}`, { headers }),
-            fetch(`${API_BASE_URL}/user/search?query=${query}`, { headers })
+            fetch(`${API_BASE_URL}/posts/search?${postSearch}`, { headers }),
+            fetch(`${API_BASE_URL}/user/search?query=${encodeURIComponent(query)}`, { headers })
         ]);
 
-        if (postsRes.ok) setPosts(await postsRes.json());
-        if (usersRes.ok) setUsers(await usersRes.json());
+        if (postsRes.ok) setPosts((await postsRes.json()).items);
+        if (usersRes.ok) setUsers((await usersRes.json()).items);
 
       } catch (e) {
         console.error(e);
@@ -1,17 +1,37 @@
 package com.example.security.admin;
 
+import com.example.security.blog.comment.CommentPageCache;
+import com.example.security.blog.feed.FeedMetrics;
+import com.example.security.blog.like.PostLikers;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.ContentVersions;
+import com.example.security.jwt.UserTokenVersions;
+import com.example.security.notification.NotificationAggregator;
+import com.example.security.notification.NotificationQueue;
 import com.example.security.user.entity.User;
 import com.example.security.user.repository.UserRepository;
+import com.example.security.user.search.UserSearchIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/admin")
 @RequiredArgsConstructor
 public class AdminController {
 
     private final UserRepository userRepository;
+    private final FeedMetrics feedMetrics;
+    private final UserSearchIndex userSearchIndex;
+    private final ContentVersions contentVersions;
+    private final PostViewCache postViewCache;
+    private final UserTokenVersions userTokenVersions;
+    private final PostLikers postLikers;
+    private final CommentPageCache commentPageCache;
+    private final NotificationQueue notificationQueue;
+    private final NotificationAggregator notificationAggregator;
 
     // Toggle Verification Status
     // Only accessible by users with role 'ADMIN'
@@ -22,9 +42,44 @@ public class AdminController {
 
         boolean newStatus = !user.isVerified();
         user.setVerified(newStatus);
-        
+        userTokenVersions.bump(user); // old tokens still say "verified": <old status>
+
         userRepository.save(user);
+        userSearchIndex.put(user); // verified teachers rank first in search
+        contentVersions.profileChanged();
+        postViewCache.invalidateAll(); // authorVerified
+        commentPageCache.invalidateAll();
 
         return ResponseEntity.ok("Verification status changed to: " + newStatus);
     }
-}
\ No newline at end of file
+
+    // Following-feed counters: which path (push/pull/hybrid) served reads, and what writes cost
+    @GetMapping("/feed-metrics")
+    public ResponseEntity<Map<String, Long>> getFeedMetrics() {
+        return ResponseEntity.ok(feedMetrics.snapshot());
+    }
+
+    // Per-post response cache: hits / misses / evictions / loads / size
+    @GetMapping("/post-cache-stats")
+    public ResponseEntity<Map<String, Long>> getPostCacheStats() {
+        return ResponseEntity.ok(postViewCache.stats());
+    }
+
+    // In-memory liker sets: posts / likes held and estimated bytes
+    @GetMapping("/liker-sets-stats")
+    public ResponseEntity<Map<String, Long>> getLikerSetsStats() {
+        return ResponseEntity.ok(postLikers.stats());
+    }
+
+    // Notification pipeline: queued / retrying / accepted / written / dropped / batches
+    @GetMapping("/notification-queue-stats")
+    public ResponseEntity<Map<String, Long>> getNotificationQueueStats() {
+        return ResponseEntity.ok(notificationQueue.stats());
+    }
+
+    // Repair for the unread badge counters (full recount, slow on a big notifications table)
+    @PostMapping("/notifications/recount-unread")
+    public ResponseEntity<Map<String, Integer>> recountUnreadNotifications() {
+        return ResponseEntity.ok(Map.of("users", notificationAggregator.recountUnread()));
+    }
+}
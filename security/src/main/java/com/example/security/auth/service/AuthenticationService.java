@@ -13,11 +13,14 @@ import com.example.security.auth.dto.AuthenticationResponse;
 import com.example.security.auth.dto.RegisterRequest;
 import com.example.security.config.EmailService;
 import com.example.security.jwt.JwtService;
+import com.example.security.jwt.UserTokenVersions;
 import com.example.security.user.Role;
 import com.example.security.user.entity.User;
 import com.example.security.user.repository.UserRepository;
+import com.example.security.user.search.UserSearchIndex;
 import org.springframework.beans.factory.annotation.Value;
 
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -36,6 +39,10 @@ public class AuthenticationService {
 
     private final EmailService emailService;
 
+    private final UserSearchIndex userSearchIndex;
+
+    private final UserTokenVersions userTokenVersions;
+
     @Value("${application.frontend.reset-password-url}")
     private String frontendUrl;
     
@@ -50,6 +57,7 @@ public class AuthenticationService {
             .verified(false)
             .build();
         repository.save(user);
+        userSearchIndex.put(user);
         var jwtToken = jwtService.generateToken(user);
         var response = AuthenticationResponse.builder()
             .token(jwtToken)
@@ -99,6 +107,8 @@ public class AuthenticationService {
     }
 
         // 2. RESET PASSWORD (Validate & Update)
+        // One transaction, so the new password and the token revocation commit together
+        @Transactional
         public void resetPassword(String token, String newPassword) {
         User user = userRepository.findByResetPasswordToken(token) // Note: Add this method to UserRepository
                 .orElseThrow(() -> new RuntimeException("Invalid Token"));
@@ -113,6 +123,9 @@ public class AuthenticationService {
         // Clear Token
         user.setResetPasswordToken(null);
         user.setResetPasswordTokenExpiry(null);
+
+        // Log out every session that used the old password
+        userTokenVersions.bump(user);
         
         userRepository.save(user);
     }
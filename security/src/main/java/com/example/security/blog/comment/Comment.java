@@ -8,7 +8,13 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(
+    name = "comments",
+    indexes = {
+        @Index(name = "idx_comments_post_roots", columnList = "post_id, depth, created_at, id"),
+        @Index(name = "idx_comments_thread", columnList = "root_id, path")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,4 +38,23 @@ public class Comment {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
+
+    // THREADING (see CommentPath). Plain ids, not relations: a thread is read by path range,
+    // and a subtree is deleted in one statement without tripping over a self foreign key.
+
+    // null for top-level comments
+    private Long parentId;
+
+    // id of the top-level comment of the thread (its own id for top-level comments)
+    private Long rootId;
+
+    @Column(length = CommentPath.MAX_LENGTH)
+    private String path;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int depth;
+
+    // Replies below this comment, at any depth
+    @Column(name = "reply_count", nullable = false, columnDefinition = "bigint default 0")
+    private long replyCount;
 }
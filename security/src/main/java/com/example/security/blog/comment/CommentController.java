@@ -2,11 +2,13 @@ package com.example.security.blog.comment;
 
 import com.example.security.blog.comment.dto.CommentResponse;
 import com.example.security.blog.comment.dto.CreateCommentRequest;
+import com.example.security.common.ConditionalGet;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/posts/{postId}/comments")
@@ -14,6 +16,7 @@ import java.util.List;
 public class CommentController {
 
     private final CommentService commentService;
+    private final ContentVersions contentVersions;
 
     @PostMapping
     public ResponseEntity<CommentResponse> addComment(
@@ -23,11 +26,32 @@ public class CommentController {
         return ResponseEntity.ok(commentService.addComment(postId, request));
     }
 
+    // GET /api/v1/posts/{postId}/comments?order=oldest&cursor=...&size=20  (order: oldest | newest)
     @GetMapping
-    public ResponseEntity<List<CommentResponse>> getCommentsForPost(
-            @PathVariable Long postId
+    public ResponseEntity<CursorPage<CommentResponse>> getCommentsForPost(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request
+    ) {
+        String etag = contentVersions.commentsTag(postId, CommentOrder.fromParam(order), cursor, CursorPage.clampSize(size));
+        return ConditionalGet.respond(request, etag,
+                () -> commentService.getCommentsForPost(postId, order, cursor, size));
+    }
+
+    // GET /api/v1/posts/{postId}/comments/{commentId}/replies?cursor=...&size=20  (thread order, any depth)
+    @GetMapping("/{commentId}/replies")
+    public ResponseEntity<CursorPage<CommentResponse>> getReplies(
+            @PathVariable Long postId,
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request
     ) {
-        return ResponseEntity.ok(commentService.getCommentsForPost(postId));
+        String etag = contentVersions.commentsTag(postId, "replies-" + commentId, cursor, CursorPage.clampSize(size));
+        return ConditionalGet.respond(request, etag,
+                () -> commentService.getReplies(postId, commentId, cursor, size));
     }
 
     @DeleteMapping("/{commentId}")
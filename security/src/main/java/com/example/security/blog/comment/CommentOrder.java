@@ -0,0 +1,24 @@
+package com.example.security.blog.comment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Orders supported by /api/v1/posts/{postId}/comments?order=...
+public enum CommentOrder {
+    OLDEST("oldest"),
+    NEWEST("newest");
+
+    private final String param;
+
+    CommentOrder(String param) {
+        this.param = param;
+    }
+
+    public static CommentOrder fromParam(String param) {
+        if (param == null || param.isBlank()) return OLDEST;
+        for (CommentOrder order : values()) {
+            if (order.param.equalsIgnoreCase(param)) return order;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown order: " + param + " (use oldest or newest)");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.security.blog.comment;
+
+import com.example.security.common.AfterCommit;
+import com.example.security.common.CursorPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// First page of each post's top-level comments, per order, with their reply previews: what every
+// "show comments" click asks for.
+// Holds MAX_SIZE + 1 threads so any requested page size (and whether there is a next page) can be cut from it.
+// Dropped after commit when a comment is added or deleted, and all at once on profile changes
+// (author name / avatar / verified are part of the rows).
+@Component
+public class CommentPageCache {
+
+    private record Key(Long postId, CommentOrder order) {
+    }
+
+    // replies: rootId -> first replies (see CommentThreads)
+    public record FirstPage(List<CommentView> roots, Map<Long, List<CommentView>> replies) {
+    }
+
+    private final CommentRepository commentRepository;
+    private final CommentThreads commentThreads;
+    private final Cache<Key, FirstPage> pages;
+
+    public CommentPageCache(CommentRepository commentRepository,
+                            CommentThreads commentThreads,
+                            @Value("${comments.first-page-cache.max-posts:2000}") long maxPosts,
+                            @Value("${comments.first-page-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.commentRepository = commentRepository;
+        this.commentThreads = commentThreads;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public FirstPage firstPage(Long postId, CommentOrder order) {
+        return pages.get(new Key(postId, order), key -> {
+            PageRequest fetch = PageRequest.of(0, CursorPage.MAX_SIZE + 1);
+            List<CommentView> roots = (order == CommentOrder.NEWEST)
+                    ? commentRepository.findNewestPage(postId, fetch)
+                    : commentRepository.findOldestPage(postId, fetch);
+            return new FirstPage(roots, commentThreads.forThreads(roots.stream().map(CommentView::id).toList()));
+        });
+    }
+
+    public void invalidate(Long postId) {
+        AfterCommit.run(() -> {
+            for (CommentOrder order : CommentOrder.values()) pages.invalidate(new Key(postId, order));
+        });
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(pages::invalidateAll);
+    }
+}
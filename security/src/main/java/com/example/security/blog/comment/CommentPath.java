@@ -0,0 +1,63 @@
+package com.example.security.blog.comment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Materialized path of a comment: the ids of its ancestors and itself, each as a fixed-width
+// base36 segment ("0000002s" + "0000003k" = reply 136 to comment 100).
+//
+// Fixed width and no separators means plain string order is thread order (a parent sorts right
+// before its replies, replies by id), under any collation, and a whole subtree is the range
+// [path, path + "zzz..."] of one index (root_id, path).
+public final class CommentPath {
+
+    public static final int SEGMENT = 8;       // 36^8 ~ 2.8e12 ids
+    public static final int MAX_DEPTH = 8;     // deeper replies are attached to the deepest allowed parent
+    public static final int MAX_LENGTH = SEGMENT * (MAX_DEPTH + 1);
+
+    private CommentPath() {
+    }
+
+    public static String child(String parentPath, Long id) {
+        String segment = Long.toString(id, 36);
+        return (parentPath == null ? "" : parentPath) + "0".repeat(SEGMENT - segment.length()) + segment;
+    }
+
+    // Highest possible path inside the subtree of path
+    public static String subtreeEnd(String path) {
+        return path + "z".repeat(MAX_LENGTH - path.length());
+    }
+
+    // Ids along the path, root first, the comment itself last
+    public static List<Long> ids(String path) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i + SEGMENT <= path.length(); i += SEGMENT) {
+            ids.add(Long.parseLong(path.substring(i, i + SEGMENT), 36));
+        }
+        return ids;
+    }
+
+    // Replies are paged by path; the cursor is the last path, opaque to clients
+    public static String cursor(String path) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("p" + path).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a missing cursor (= first page)
+    public static String fromCursor(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("p") || !raw.substring(1).matches("[0-9a-z]{" + SEGMENT + ",}")) {
+                throw new IllegalArgumentException();
+            }
+            return raw.substring(1);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -1,13 +1,62 @@
 package com.example.security.blog.comment;
 
 import com.example.security.blog.post.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByPost(Post post);
+    // PAGES of one post's top-level comments with their authors (one query each), keyset on (createdAt, id).
+    // All four are range scans of idx_comments_post_roots.
+    String ROOTS_OF_POST = CommentView.SELECT + "FROM Comment c JOIN c.author a WHERE c.post.id = :postId AND c.depth = 0 ";
+
+    @Query(ROOTS_OF_POST + "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentView> findOldestPage(@Param("postId") Long postId, Pageable pageable);
+
+    @Query(ROOTS_OF_POST + "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentView> findOldestPageAfter(@Param("postId") Long postId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query(ROOTS_OF_POST + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentView> findNewestPage(@Param("postId") Long postId, Pageable pageable);
+
+    @Query(ROOTS_OF_POST + "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentView> findNewestPageAfter(@Param("postId") Long postId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    // THREADS (see CommentPath): replies in thread order, one range scan of idx_comments_thread
+    @Query(CommentView.SELECT + "FROM Comment c JOIN c.author a " +
+           "WHERE c.rootId = :rootId AND c.path > :after AND c.path <= :end ORDER BY c.path ASC")
+    List<CommentView> findThreadPage(@Param("rootId") Long rootId,
+                                     @Param("after") String after,
+                                     @Param("end") String end,
+                                     Pageable pageable);
+
+    // A comment and every reply below it
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.rootId = :rootId AND c.path >= :path AND c.path <= :end")
+    int deleteSubtree(@Param("rootId") Long rootId, @Param("path") String path, @Param("end") String end);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id IN :ids")
+    int adjustReplyCounts(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    // Comments written before threading existed
+    @Query("SELECT c.id FROM Comment c WHERE c.path IS NULL")
+    List<Long> findIdsWithoutPath();
 
     // later if needed:
     // List<Comment> findByAuthor(User author);
@@ -2,55 +2,77 @@ package com.example.security.blog.comment;
 
 import com.example.security.blog.comment.dto.CommentResponse;
 import com.example.security.blog.comment.dto.CreateCommentRequest;
+import com.example.security.blog.post.HotPostRanking;
 import com.example.security.blog.post.Post;
 import com.example.security.blog.post.PostRepository;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
+import com.example.security.common.PageCursor;
 import com.example.security.notification.NotificationService;
 import com.example.security.notification.NotificationType;
+import com.example.security.user.CurrentUserProvider;
 import com.example.security.user.entity.User;
-import com.example.security.user.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
     private final CommentRepository commentRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final HotPostRanking hotPostRanking;
+    private final ContentVersions contentVersions;
+    private final PostViewCache postViewCache;
+    private final CommentPageCache commentPageCache;
+    private final CommentThreads commentThreads;
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName(); // username = email
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
+    @Transactional
     public CommentResponse addComment(Long postId, CreateCommentRequest request) {
-        User author = getCurrentUser();
+        User author = currentUserProvider.getEntity(); // name / avatar go back in the response
 
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
+        Comment parent = (request.getParentId() == null) ? null : replyTarget(post.getId(), request.getParentId());
+
         Comment comment = Comment.builder()
                 .content(request.getContent())
                 .createdAt(LocalDateTime.now())
                 .post(post)
                 .author(author)
+                .parentId(parent == null ? null : parent.getId())
+                .depth(parent == null ? 0 : parent.getDepth() + 1)
                 .build();
 
         Comment saved = commentRepository.save(comment);
+        // the path ends with the comment's own id, so it is only known after the insert
+        saved.setPath(CommentPath.child(parent == null ? null : parent.getPath(), saved.getId()));
+        saved.setRootId(parent == null ? saved.getId() : parent.getRootId());
+        if (parent != null) {
+            commentRepository.adjustReplyCounts(CommentPath.ids(parent.getPath()), 1);
+        }
+        postRepository.adjustCommentCount(post.getId(), 1);
+        hotPostRanking.onComment(post.getId(), 1);
+        contentVersions.commentsChanged(post.getId());
+        postViewCache.invalidate(post.getId()); // commentCount
+        commentPageCache.invalidate(post.getId());
 
         // 2. TRIGGER NOTIFICATION HERE
         notificationService.createNotification(
-            post.getAuthor(),       // Recipient (Post Owner)
-            author,                 // Actor (Who commented)
+            post.getAuthor().getId(), // Recipient (Post Owner)
+            author.getId(),           // Actor (Who commented)
             NotificationType.COMMENT, 
             post.getId()            // Related Post ID
         );
@@ -58,18 +80,74 @@ public class CommentService {
         return mapToResponse(saved);
     }
 
-    public List<CommentResponse> getCommentsForPost(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+    // The comment being replied to; replies below MAX_DEPTH go next to their parent instead
+    private Comment replyTarget(Long postId, Long parentId) {
+        Comment parent = commentRepository.findById(parentId)
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
+        if (!parent.getPost().getId().equals(postId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Comment belongs to another post");
+        }
+        if (parent.getDepth() >= CommentPath.MAX_DEPTH) {
+            parent = commentRepository.findById(parent.getParentId())
+                    .orElseThrow(() -> new RuntimeException("Comment not found"));
+        }
+        return parent;
+    }
+
+    // One page of a post's top-level comments, oldest or newest first, each with replyCount and
+    // its first few replies. The first page comes from CommentPageCache; later pages are one keyset
+    // query plus one preview query (CommentThreads), authors included.
+    public CursorPage<CommentResponse> getCommentsForPost(Long postId, String order, String cursor, Integer size) {
+        postViewCache.get(postId).orElseThrow(() -> new RuntimeException("Post not found"));
+
+        CommentOrder sort = CommentOrder.fromParam(order);
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+
+        List<CommentView> comments;
+        Map<Long, List<CommentView>> replies;
+        if (after == null) {
+            CommentPageCache.FirstPage first = commentPageCache.firstPage(postId, sort);
+            comments = first.roots().subList(0, Math.min(first.roots().size(), limit + 1));
+            replies = first.replies();
+        } else {
+            PageRequest fetch = PageRequest.of(0, limit + 1);
+            comments = (sort == CommentOrder.NEWEST)
+                    ? commentRepository.findNewestPageAfter(postId, after.createdAt(), after.id(), fetch)
+                    : commentRepository.findOldestPageAfter(postId, after.createdAt(), after.id(), fetch);
+            replies = commentThreads.forThreads(comments.stream().limit(limit).map(CommentView::id).toList());
+        }
 
-        return commentRepository.findByPost(post)
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+        return CursorPage.slice(comments, limit,
+                comment -> new PageCursor(comment.createdAt(), comment.id()).encode(),
+                page -> page.stream().map(root -> {
+                    CommentResponse response = mapToResponse(root);
+                    response.setReplies(replies.getOrDefault(root.id(), List.of()).stream().map(this::mapToResponse).toList());
+                    return response;
+                }).toList());
     }
 
+    // Replies below one comment (any depth), in thread order: one range scan over its path
+    public CursorPage<CommentResponse> getReplies(Long postId, Long commentId, String cursor, Integer size) {
+        Comment comment = commentRepository.findById(commentId)
+                .filter(c -> c.getPost().getId().equals(postId))
+                .orElseThrow(() -> new RuntimeException("Comment not found"));
+
+        String after = CommentPath.fromCursor(cursor);
+        if (after == null || !after.startsWith(comment.getPath())) after = comment.getPath();
+        int limit = CursorPage.clampSize(size);
+
+        List<CommentView> replies = commentRepository.findThreadPage(comment.getRootId(), after,
+                CommentPath.subtreeEnd(comment.getPath()), PageRequest.of(0, limit + 1));
+
+        return CursorPage.slice(replies, limit,
+                reply -> CommentPath.cursor(reply.path()),
+                page -> page.stream().map(this::mapToResponse).toList());
+    }
+
+    @Transactional
     public void deleteComment(Long commentId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.get();
 
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
@@ -81,23 +159,40 @@ public class CommentService {
             throw new RuntimeException("Not allowed to delete this comment");
         }
 
-        commentRepository.delete(comment);
+        // the comment goes with all its replies; ancestors lose all of them from their counts
+        long removed = comment.getReplyCount() + 1;
+        commentRepository.deleteSubtree(comment.getRootId(), comment.getPath(), CommentPath.subtreeEnd(comment.getPath()));
+        if (comment.getParentId() != null) {
+            List<Long> ancestors = CommentPath.ids(comment.getPath());
+            commentRepository.adjustReplyCounts(ancestors.subList(0, ancestors.size() - 1), -removed);
+        }
+        postRepository.adjustCommentCount(comment.getPost().getId(), -removed);
+        hotPostRanking.onComment(comment.getPost().getId(), -removed);
+        contentVersions.commentsChanged(comment.getPost().getId());
+        postViewCache.invalidate(comment.getPost().getId());
+        commentPageCache.invalidate(comment.getPost().getId());
     }
 
     private CommentResponse mapToResponse(Comment comment) {
-        User author = comment.getAuthor();
-        String fullName = (author.getLastname() + " " + author.getFirstname()).trim();
+        return mapToResponse(CommentView.of(comment));
+    }
+
+    private CommentResponse mapToResponse(CommentView comment) {
+        String fullName = (comment.authorLastname() + " " + comment.authorFirstname()).trim();
 
         return CommentResponse.builder()
-                .id(comment.getId())
-                .content(comment.getContent())
-                .postId(comment.getPost().getId())
-                .authorId(author.getId())
+                .id(comment.id())
+                .content(comment.content())
+                .postId(comment.postId())
+                .parentId(comment.parentId())
+                .depth(comment.depth())
+                .replyCount(comment.replyCount())
+                .authorId(comment.authorId())
                 .authorName(fullName)
-                .authorRole(author.getRole().name())
-                .authorVerified(author.isVerified())
-                .authorImageUrl(author.getProfileImageUrl()) 
-                .createdAt(comment.getCreatedAt())
+                .authorRole(comment.authorRole().name())
+                .authorVerified(comment.authorVerified())
+                .authorImageUrl(comment.authorImageUrl())
+                .createdAt(comment.createdAt())
                 .build();
     }
 }
@@ -0,0 +1,79 @@
+package com.example.security.blog.comment;
+
+import com.example.security.user.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Plain SQL for comment threads (see CommentPath).
+//
+// Reply previews: the first comments.reply-previews replies (in thread order) of a whole page of
+// threads in one statement, ROW_NUMBER() over each thread's (root_id, path) range, which both
+// MySQL 8 and PostgreSQL support. JPQL cannot express "top N per group".
+@Component
+@RequiredArgsConstructor
+public class CommentThreads {
+
+    private static final String TOP_REPLIES =
+            "SELECT * FROM (" +
+            "  SELECT c.id, c.content, c.created_at, c.post_id, c.parent_id, c.root_id, c.path, c.depth, c.reply_count, " +
+            "         a.id AS author_id, a.firstname, a.lastname, a.role, a.verified, a.profile_image_url, " +
+            "         ROW_NUMBER() OVER (PARTITION BY c.root_id ORDER BY c.path) AS rn " +
+            "  FROM comments c JOIN _user a ON a.id = c.author_id " +
+            "  WHERE c.root_id IN (:rootIds) AND c.depth > 0" +
+            ") t WHERE t.rn <= :perThread ORDER BY t.root_id, t.path";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final CommentRepository commentRepository;
+
+    @Value("${comments.reply-previews:3}")
+    private int perThread;
+
+    // rootId -> its first replies; threads without replies are left out
+    public Map<Long, List<CommentView>> forThreads(Collection<Long> rootIds) {
+        Map<Long, List<CommentView>> previews = new LinkedHashMap<>();
+        if (rootIds.isEmpty() || perThread <= 0) return previews;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("rootIds", rootIds)
+                .addValue("perThread", perThread);
+        namedJdbcTemplate.query(TOP_REPLIES, params, (ResultSet rs) -> {
+            CommentView reply = toView(rs);
+            previews.computeIfAbsent(reply.rootId(), id -> new ArrayList<>()).add(reply);
+        });
+        return previews;
+    }
+
+    // Comments written before threading existed become top-level threads of their own
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPaths() {
+        List<Long> ids = commentRepository.findIdsWithoutPath();
+        if (ids.isEmpty()) return;
+        jdbcTemplate.batchUpdate("UPDATE comments SET root_id = ?, path = ?, depth = 0 WHERE id = ?",
+                ids.stream().map(id -> new Object[]{id, CommentPath.child(null, id), id}).toList());
+        System.out.println("COMMENT THREADS BACKFILLED: " + ids.size() + " comments");
+    }
+
+    private static CommentView toView(ResultSet rs) throws SQLException {
+        return new CommentView(
+                rs.getLong("id"), rs.getString("content"), rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getLong("post_id"), rs.getLong("parent_id"), rs.getLong("root_id"), rs.getString("path"),
+                rs.getInt("depth"), rs.getLong("reply_count"),
+                rs.getLong("author_id"), rs.getString("firstname"), rs.getString("lastname"),
+                Role.valueOf(rs.getString("role")), rs.getBoolean("verified"), rs.getString("profile_image_url"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.security.blog.comment;
+
+import com.example.security.user.Role;
+
+import java.time.LocalDateTime;
+
+// Read-only row for comment lists: comment + author columns in one query (see PostView)
+public record CommentView(Long id, String content, LocalDateTime createdAt, Long postId,
+                          Long parentId, Long rootId, String path, int depth, long replyCount,
+                          Long authorId, String authorFirstname, String authorLastname, Role authorRole,
+                          boolean authorVerified, String authorImageUrl) {
+
+    // Select clause for queries aliasing the comment as "c" and its author as "a"
+    public static final String SELECT = "SELECT new com.example.security.blog.comment.CommentView(" +
+            "c.id, c.content, c.createdAt, c.post.id, c.parentId, c.rootId, c.path, c.depth, c.replyCount, " +
+            "a.id, a.firstname, a.lastname, a.role, a.verified, a.profileImageUrl) ";
+
+    public static CommentView of(Comment comment) {
+        var author = comment.getAuthor();
+        return new CommentView(comment.getId(), comment.getContent(), comment.getCreatedAt(), comment.getPost().getId(),
+                comment.getParentId(), comment.getRootId(), comment.getPath(), comment.getDepth(), comment.getReplyCount(),
+                author.getId(), author.getFirstname(), author.getLastname(), author.getRole(),
+                author.isVerified(), author.getProfileImageUrl());
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -14,6 +15,14 @@ public class CommentResponse {
 
     private Long postId;
 
+    // Threads: parentId is null for top-level comments; replyCount counts replies at any depth
+    private Long parentId;
+    private int depth;
+    private long replyCount;
+
+    // Top-level comments in a page: their first replies, in thread order (the rest via /replies)
+    private List<CommentResponse> replies;
+
     private Long authorId;
     private String authorName;
     private String authorRole;
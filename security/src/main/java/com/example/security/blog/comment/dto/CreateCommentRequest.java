@@ -5,4 +5,7 @@ import lombok.Data;
 @Data
 public class CreateCommentRequest {
     private String content;
+
+    // set when replying to another comment of the same post
+    private Long parentId;
 }
@@ -0,0 +1,83 @@
+package com.example.security.blog.feed;
+
+import com.example.security.user.follow.FollowRepository;
+import com.example.security.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Authors with so many followers that their posts are pulled at read time instead of pushed.
+// An author becomes a celebrity at `threshold` followers and only stops being one below threshold / 2,
+// so someone hovering around the line doesn't flip strategy on every follow/unfollow.
+//
+// The set is persisted (_user.feed_pull) and loaded on startup: posts written while an author was
+// pulled are in nobody's timeline, so forgetting the author on a restart would hide them.
+@Component
+public class CelebrityRegistry {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final long threshold;
+
+    // replaced wholesale, never mutated: readers need no locking
+    private volatile Set<Long> celebrities = Set.of();
+
+    public CelebrityRegistry(FollowRepository followRepository, UserRepository userRepository,
+                             @Value("${feed.fanout.celebrity-threshold:1000}") long threshold) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        celebrities = Set.copyOf(userRepository.findFeedPullAuthors());
+    }
+
+    public long threshold() {
+        return threshold;
+    }
+
+    public boolean isCelebrity(Long authorId) {
+        return celebrities.contains(authorId);
+    }
+
+    public Set<Long> all() {
+        return celebrities;
+    }
+
+    // Called with a fresh follower count when the author posts (in the post's transaction)
+    public synchronized void update(Long authorId, long followerCount) {
+        boolean member = celebrities.contains(authorId);
+        if (!member && followerCount >= threshold) {
+            userRepository.setFeedPull(List.of(authorId));
+            Set<Long> next = new HashSet<>(celebrities);
+            next.add(authorId);
+            celebrities = Set.copyOf(next);
+        }
+    }
+
+    // Recompute from the follows table; returns the authors that dropped back to push.
+    // Starts from the persisted set, so a flag lost with a rolled-back post is written again here.
+    public synchronized Set<Long> refresh() {
+        Set<Long> stillAboveHalf = new HashSet<>(followRepository.findUsersWithFollowersAtLeast(Math.max(1, threshold / 2)));
+        List<Long> aboveThreshold = followRepository.findUsersWithFollowersAtLeast(threshold);
+
+        Set<Long> current = new HashSet<>(celebrities);
+        current.addAll(userRepository.findFeedPullAuthors());
+        Set<Long> next = new HashSet<>(aboveThreshold);
+        Set<Long> demoted = new HashSet<>();
+        for (Long authorId : current) {
+            if (stillAboveHalf.contains(authorId)) next.add(authorId);
+            else demoted.add(authorId);
+        }
+        if (!next.isEmpty()) userRepository.setFeedPull(next);
+        if (!demoted.isEmpty()) userRepository.clearFeedPull(demoted);
+        celebrities = Set.copyOf(next);
+        return demoted;
+    }
+}
@@ -2,11 +2,13 @@ package com.example.security.blog.feed;
 
 import com.example.security.blog.post.PostService;
 import com.example.security.blog.post.dto.PostResponse;
+import com.example.security.common.ConditionalGet;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/feed")
@@ -15,16 +17,26 @@ public class FeedController {
 
     private final FeedService feedService;
     private final PostService postService;
+    private final ContentVersions contentVersions;
 
     // all posts by teachers + students
+    // ?cursor=<nextCursor from previous page>&size=<1..50>
+    // 304 when no post, count, profile or own like/follow changed since the client's copy
     @GetMapping("/all")
-    public ResponseEntity<List<PostResponse>> getAllFeed() {
-        return ResponseEntity.ok(postService.getAllPosts());
+    public ResponseEntity<CursorPage<PostResponse>> getAllFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request
+    ) {
+        return ConditionalGet.respond(request, contentVersions.allPostsTag(), () -> postService.getAllPosts(cursor, size));
     }
 
     // posts from teachers that the current student follows
     @GetMapping("/following")
-    public ResponseEntity<List<PostResponse>> getFollowingFeed() {
-        return ResponseEntity.ok(feedService.getFollowingFeed());
+    public ResponseEntity<CursorPage<PostResponse>> getFollowingFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(feedService.getFollowingFeed(cursor, size));
     }
 }
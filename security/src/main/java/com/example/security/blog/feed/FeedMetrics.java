@@ -0,0 +1,55 @@
+package com.example.security.blog.feed;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process counters for the following feed, exposed at GET /api/v1/admin/feed-metrics.
+// Read side: which path served each request. Write side: what each new post cost.
+@Component
+public class FeedMetrics {
+
+    private final Map<FeedPath, LongAdder> reads = new EnumMap<>(FeedPath.class);
+
+    private final LongAdder postsPushed = new LongAdder();
+    private final LongAdder timelineRowsWritten = new LongAdder();
+    private final LongAdder postsPulled = new LongAdder();        // celebrity posts, not fanned out
+    private final LongAdder pullCacheReads = new LongAdder();     // author served from AuthorRecentPostsCache
+    private final LongAdder pullDbFallbacks = new LongAdder();    // page went past the cache, read from posts
+
+    public FeedMetrics() {
+        for (FeedPath path : FeedPath.values()) reads.put(path, new LongAdder());
+    }
+
+    public void recordRead(FeedPath path) {
+        reads.get(path).increment();
+    }
+
+    public void recordPush(int rowsWritten) {
+        postsPushed.increment();
+        timelineRowsWritten.add(rowsWritten);
+    }
+
+    public void recordPullOnlyPost() {
+        postsPulled.increment();
+    }
+
+    public void recordPullSource(int fromCache, int fromDb) {
+        pullCacheReads.add(fromCache);
+        pullDbFallbacks.add(fromDb);
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        reads.forEach((path, count) -> out.put("reads." + path.name().toLowerCase(), count.sum()));
+        out.put("writes.postsPushed", postsPushed.sum());
+        out.put("writes.timelineRowsWritten", timelineRowsWritten.sum());
+        out.put("writes.postsPulled", postsPulled.sum());
+        out.put("pull.authorCacheReads", pullCacheReads.sum());
+        out.put("pull.dbFallbacks", pullDbFallbacks.sum());
+        return out;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.security.blog.feed;
+
+// Which strategy served a following-feed read
+public enum FeedPath {
+    PUSH,   // only the viewer's materialized timeline
+    PULL,   // only posts merged from followed high-follower authors
+    HYBRID  // both, merged at read time
+}
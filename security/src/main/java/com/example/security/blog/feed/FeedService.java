@@ -1,18 +1,13 @@
 package com.example.security.blog.feed;
 
-import com.example.security.blog.comment.CommentRepository;
-import com.example.security.blog.like.PostLikeRepository;
-import com.example.security.blog.post.Post;
-import com.example.security.blog.post.PostRepository;
+import com.example.security.blog.post.PostView;
+import com.example.security.blog.post.PostResponseAssembler;
 import com.example.security.blog.post.dto.PostResponse;
-import com.example.security.user.AccountType;
+import com.example.security.common.CursorPage;
+import com.example.security.common.PageCursor;
+import com.example.security.user.CurrentUserProvider;
 import com.example.security.user.entity.User;
-import com.example.security.user.follow.Follow;
-import com.example.security.user.follow.FollowRepository;
-import com.example.security.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,81 +16,21 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FeedService {
 
-    private final PostRepository postRepository;
-    private final FollowRepository followRepository;
-    private final UserRepository userRepository;
-    private final PostLikeRepository postLikeRepository;
-    private final CommentRepository commentRepository;
+    private final TimelineService timelineService;
+    private final CurrentUserProvider currentUserProvider;
+    private final PostResponseAssembler postResponseAssembler;
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
-    private PostResponse mapToResponse(Post post) {
-        User author = post.getAuthor();
-        User currentUser = getCurrentUser();
-        String fullName = (author.getLastname() + " " + author.getFirstname()).trim();
-        String authorImageURL = author.getProfileImageUrl();
-
-        long likeCount = postLikeRepository.countByPost(post);
-        boolean likedByCurrentUser = postLikeRepository.existsByPostAndUser(post, currentUser);
-
-        long commentCount = commentRepository.countByPost(post);
-        
-        boolean followingAuthor = false;
-    if (currentUser.getAccountType() == AccountType.STUDENT
-            && author.getAccountType() == AccountType.TEACHER) {
-        followingAuthor = followRepository.existsByFollowerAndFollowing(currentUser, author);
-    }
-
-        return PostResponse.builder()
-                .id(post.getId())
-                .title(post.getTitle())
-                .content(post.getContent())
-                .imageUrl(post.getImageUrl())
-                .category(post.getCategory())
-                .authorName(fullName)
-                .authorImageUrl(authorImageURL)
-                .authorRole(author.getAccountType() != null ? author.getAccountType().name() : "STUDENT")
-                .authorVerified(author.isVerified())
-                .likeCount(likeCount)
-                .likedByCurrentUser(likedByCurrentUser)
-                .commentCount(commentCount)
-                .authorId(author.getId())
-                .followingAuthor(followingAuthor)
-                .createdAt(post.getCreatedAt())
-                .updatedAt(post.getUpdatedAt())
-                .build();
-    }
-
-    // 1) all posts from everyone (teachers + students)
-    public List<PostResponse> getAllFeed() {
-        return postRepository.findAllByOrderByCreatedAtDesc()
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
-    }
-
-    // 2) posts only from teachers that the current student follows
-    public List<PostResponse> getFollowingFeed() {
-        User current = getCurrentUser();
-
-        // get all teachers this user follows
-        List<User> followedTeachers = followRepository.findByFollower(current)
-                .stream()
-                .map(Follow::getFollowing)
-                .toList();
+    // posts only from teachers that the current student follows,
+    // read straight from the materialized timeline (see TimelineService)
+    public CursorPage<PostResponse> getFollowingFeed(String cursor, Integer size) {
+        User current = currentUserProvider.get();
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
 
-        if (followedTeachers.isEmpty()) {
-            return List.of();
-        }
+        List<PostView> posts = timelineService.readPage(current, after, limit + 1);
 
-        return postRepository.findByAuthorInOrderByCreatedAtDesc(followedTeachers)
-                .stream()
-                .map(this::mapToResponse)
-                .toList();
+        return CursorPage.slice(posts, limit,
+                post -> new PageCursor(post.createdAt(), post.id()).encode(),
+                page -> postResponseAssembler.toResponses(page, current));
     }
 }
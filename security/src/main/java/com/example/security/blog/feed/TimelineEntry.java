@@ -0,0 +1,45 @@
+package com.example.security.blog.feed;
+
+import com.example.security.blog.post.Post;
+import com.example.security.user.entity.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One row per (follower, post) in the follower's materialized "following" timeline.
+// post_created_at is copied from the post so the timeline can be range-scanned on
+// (owner_id, post_created_at, post_id) without touching the posts table.
+@Entity
+@Table(
+    name = "timeline_entries",
+    uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"owner_id", "post_id"})
+    },
+    indexes = {
+        @Index(name = "idx_timeline_owner_created", columnList = "owner_id, post_created_at, post_id")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimelineEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // whose timeline this is (the student)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", nullable = false)
+    private Post post;
+
+    @Column(name = "post_created_at", nullable = false)
+    private LocalDateTime postCreatedAt;
+}
@@ -0,0 +1,80 @@
+package com.example.security.blog.feed;
+
+import com.example.security.blog.post.PostView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+
+    // READ: one ordered range scan over the owner's entries, joined to the posts and authors by primary key
+    @Query(PostView.SELECT + "FROM TimelineEntry e JOIN e.post p JOIN p.author a WHERE e.owner.id = :ownerId " +
+           "ORDER BY e.postCreatedAt DESC, p.id DESC")
+    List<PostView> findTimelinePage(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query(PostView.SELECT + "FROM TimelineEntry e JOIN e.post p JOIN p.author a WHERE e.owner.id = :ownerId " +
+           "AND (e.postCreatedAt < :createdAt OR (e.postCreatedAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY e.postCreatedAt DESC, p.id DESC")
+    List<PostView> findTimelinePageAfter(@Param("ownerId") Long ownerId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // WRITE: fan a new post out to every follower of its author in a single statement
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (owner_id, post_id, post_created_at) " +
+                   "SELECT f.follower_id, :postId, :createdAt FROM follows f WHERE f.following_id = :authorId " +
+                   "AND NOT EXISTS (SELECT 1 FROM timeline_entries t WHERE t.owner_id = f.follower_id AND t.post_id = :postId)",
+           nativeQuery = true)
+    int fanOut(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt, @Param("authorId") Long authorId);
+
+    // WRITE: copy an author's most recent posts into a new follower's timeline
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (owner_id, post_id, post_created_at) " +
+                   "SELECT :ownerId, p.id, p.created_at FROM posts p WHERE p.author_id = :authorId " +
+                   "AND NOT EXISTS (SELECT 1 FROM timeline_entries t WHERE t.owner_id = :ownerId AND t.post_id = p.id) " +
+                   "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit",
+           nativeQuery = true)
+    int backfill(@Param("ownerId") Long ownerId, @Param("authorId") Long authorId, @Param("limit") int limit);
+
+    // WRITE: push some of an author's posts to all of their followers
+    // (used when an author drops back from pull to push)
+    @Modifying
+    @Query(value = "INSERT INTO timeline_entries (owner_id, post_id, post_created_at) " +
+                   "SELECT f.follower_id, p.id, p.created_at FROM follows f JOIN posts p ON p.author_id = f.following_id " +
+                   "WHERE f.following_id = :authorId AND p.id IN (:postIds) " +
+                   "AND NOT EXISTS (SELECT 1 FROM timeline_entries t WHERE t.owner_id = f.follower_id AND t.post_id = p.id)",
+           nativeQuery = true)
+    int fanOutToAllFollowers(@Param("authorId") Long authorId, @Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry e WHERE e.post.id = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    // unfollow: drop that author's posts from the follower's timeline
+    @Modifying
+    @Query("DELETE FROM TimelineEntry e WHERE e.owner.id = :ownerId " +
+           "AND e.post.id IN (SELECT p.id FROM Post p WHERE p.author.id = :authorId)")
+    int deleteByOwnerAndAuthor(@Param("ownerId") Long ownerId, @Param("authorId") Long authorId);
+
+    // PRUNING (keeps every timeline bounded)
+    @Query("SELECT e.owner.id FROM TimelineEntry e GROUP BY e.owner.id HAVING COUNT(e) > :max")
+    List<Long> findOwnersOver(@Param("max") long max);
+
+    // With PageRequest.of(max, 1): the newest entry that no longer fits
+    @Query("SELECT e FROM TimelineEntry e WHERE e.owner.id = :ownerId ORDER BY e.postCreatedAt DESC, e.post.id DESC")
+    List<TimelineEntry> findByOwnerNewestFirst(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry e WHERE e.owner.id = :ownerId " +
+           "AND (e.postCreatedAt < :createdAt OR (e.postCreatedAt = :createdAt AND e.post.id <= :postId))")
+    int deleteOlderThan(@Param("ownerId") Long ownerId,
+                        @Param("createdAt") LocalDateTime createdAt,
+                        @Param("postId") Long postId);
+}
@@ -0,0 +1,199 @@
+package com.example.security.blog.feed;
+
+import com.example.security.blog.post.AuthorRecentPostsCache;
+import com.example.security.blog.post.Post;
+import com.example.security.blog.post.PostRef;
+import com.example.security.blog.post.PostRepository;
+import com.example.security.blog.post.PostView;
+import com.example.security.common.PageCursor;
+import com.example.security.user.AccountType;
+import com.example.security.user.entity.User;
+import com.example.security.user.follow.Follow;
+import com.example.security.user.follow.FollowRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// "Following" timelines with a hybrid push/pull strategy.
+//
+// PUSH: a normal teacher's new post is written into every follower's timeline when it is created,
+//       so reading is a single range scan over timeline_entries.
+// PULL: teachers with CelebrityRegistry.threshold() followers or more are NOT fanned out
+//       (thousands of rows per post). Their posts are merged in at read time from AuthorRecentPostsCache.
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final AuthorRecentPostsCache authorRecentPostsCache;
+    private final CelebrityRegistry celebrityRegistry;
+    private final FeedMetrics feedMetrics;
+
+    // How many recent posts each timeline keeps
+    @Value("${feed.timeline.max-entries:500}")
+    private int maxEntries;
+
+    // READ
+
+    // Returns up to fetchSize posts after the cursor, newest first
+    public List<PostView> readPage(User owner, PageCursor after, int fetchSize) {
+        PageRequest fetch = PageRequest.of(0, fetchSize);
+        List<PostView> pushed = (after == null)
+                ? timelineEntryRepository.findTimelinePage(owner.getId(), fetch)
+                : timelineEntryRepository.findTimelinePageAfter(owner.getId(), after.createdAt(), after.id(), fetch);
+
+        Set<Long> celebrities = celebrityRegistry.all();
+        List<Long> followedCelebrities = celebrities.isEmpty()
+                ? List.of()
+                : followRepository.findFollowedIds(owner.getId(), celebrities);
+
+        if (followedCelebrities.isEmpty()) {
+            feedMetrics.recordRead(FeedPath.PUSH);
+            return pushed;
+        }
+
+        List<PostRef> pulled = pull(followedCelebrities, after, fetchSize);
+        feedMetrics.recordRead(pushed.isEmpty() ? FeedPath.PULL : FeedPath.HYBRID);
+        return merge(pushed, pulled, fetchSize);
+    }
+
+    // Newest posts of the given authors after the cursor, from the cache where it reaches far enough
+    private List<PostRef> pull(List<Long> authorIds, PageCursor after, int fetchSize) {
+        List<PostRef> refs = new ArrayList<>();
+        List<Long> pastCache = new ArrayList<>();
+
+        for (Long authorId : authorIds) {
+            authorRecentPostsCache.page(authorId, after, fetchSize)
+                    .ifPresentOrElse(refs::addAll, () -> pastCache.add(authorId));
+        }
+
+        if (!pastCache.isEmpty()) {
+            PageRequest fetch = PageRequest.of(0, fetchSize);
+            refs.addAll(after == null
+                    ? postRepository.findRefsByAuthorIds(pastCache, fetch)
+                    : postRepository.findRefsByAuthorIdsAfter(pastCache, after.createdAt(), after.id(), fetch));
+        }
+        feedMetrics.recordPullSource(authorIds.size() - pastCache.size(), pastCache.size());
+        return refs;
+    }
+
+    // Merge both sources by (createdAt DESC, id DESC), drop duplicates (an author may have been
+    // pushed before becoming a celebrity) and load the pulled posts in one query
+    private List<PostView> merge(List<PostView> pushed, List<PostRef> pulled, int fetchSize) {
+        Map<Long, PostView> byId = new HashMap<>();
+        List<PostRef> refs = new ArrayList<>(pulled);
+        for (PostView post : pushed) {
+            byId.put(post.id(), post);
+            refs.add(PostRef.of(post));
+        }
+
+        Map<Long, PostRef> page = new LinkedHashMap<>();
+        refs.stream().sorted(PostRef.NEWEST_FIRST).forEach(ref -> {
+            if (page.size() < fetchSize) page.putIfAbsent(ref.id(), ref);
+        });
+
+        List<Long> missing = page.keySet().stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            postRepository.findViewsByIds(missing).forEach(post -> byId.put(post.id(), post));
+        }
+
+        return page.keySet().stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // WRITE PATHS
+
+    // Only teachers can be followed, so only their posts are fanned out.
+    // The strategy is picked per author from their current follower count.
+    @Transactional
+    public void onPostCreated(Post post) {
+        User author = post.getAuthor();
+        if (author.getAccountType() != AccountType.TEACHER) return;
+
+        celebrityRegistry.update(author.getId(), followRepository.countByFollowing(author));
+        if (celebrityRegistry.isCelebrity(author.getId())) {
+            feedMetrics.recordPullOnlyPost();
+            return;
+        }
+        int rows = timelineEntryRepository.fanOut(post.getId(), post.getCreatedAt(), author.getId());
+        feedMetrics.recordPush(rows);
+    }
+
+    // Must run before the post row is deleted (timeline rows reference it)
+    @Transactional
+    public void onPostDeleted(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    // Celebrities are pulled at read time, so there is nothing to copy
+    @Transactional
+    public void onFollow(User follower, User teacher) {
+        if (celebrityRegistry.isCelebrity(teacher.getId())) return;
+        timelineEntryRepository.backfill(follower.getId(), teacher.getId(), maxEntries);
+    }
+
+    @Transactional
+    public void onUnfollow(User follower, User teacher) {
+        timelineEntryRepository.deleteByOwnerAndAuthor(follower.getId(), teacher.getId());
+    }
+
+    // MAINTENANCE
+
+    // Re-evaluate who is pulled. Authors going back to push get their recent posts
+    // (which were never fanned out) pushed to their followers now: a timeline's worth, read from
+    // the posts table since the author cache only holds the newest few.
+    @Scheduled(fixedDelayString = "${feed.fanout.refresh-ms:300000}", initialDelay = 0)
+    @Transactional
+    public void refreshStrategies() {
+        for (Long authorId : celebrityRegistry.refresh()) {
+            List<Long> recentIds = postRepository.findRefsByAuthorIds(List.of(authorId), PageRequest.of(0, maxEntries))
+                    .stream().map(PostRef::id).toList();
+            if (!recentIds.isEmpty()) {
+                feedMetrics.recordPush(timelineEntryRepository.fanOutToAllFollowers(authorId, recentIds));
+            }
+        }
+    }
+
+    // First start after timelines were introduced: build them from the existing follows
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (timelineEntryRepository.count() > 0) return;
+
+        List<Follow> follows = followRepository.findAll();
+        for (Follow follow : follows) {
+            timelineEntryRepository.backfill(follow.getFollower().getId(), follow.getFollowing().getId(), maxEntries);
+        }
+        if (!follows.isEmpty()) {
+            System.out.println("TIMELINES BUILT for " + follows.size() + " follows");
+        }
+        prune();
+    }
+
+    // Trim every timeline back to maxEntries (fan-out only ever appends)
+    @Scheduled(cron = "${feed.timeline.prune-cron:0 15 * * * *}")
+    @Transactional
+    public void prune() {
+        for (Long ownerId : timelineEntryRepository.findOwnersOver(maxEntries)) {
+            timelineEntryRepository.findByOwnerNewestFirst(ownerId, PageRequest.of(maxEntries, 1))
+                    .stream()
+                    .findFirst()
+                    .ifPresent(cutoff -> timelineEntryRepository.deleteOlderThan(
+                            ownerId, cutoff.getPostCreatedAt(), cutoff.getPost().getId()));
+        }
+    }
+}
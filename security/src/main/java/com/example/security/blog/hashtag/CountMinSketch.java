@@ -0,0 +1,48 @@
+package com.example.security.blog.hashtag;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size approximate counter: estimates never undercount, and overcount by at most
+// ~ 2 * total / width with probability 1 - (1/2)^depth. Lock-free, safe for concurrent adds.
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counts;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counts = new AtomicLongArray(depth * width);
+    }
+
+    // delta may be negative (a post deleted inside the window)
+    public void add(String key, long delta) {
+        int hash = key.hashCode();
+        for (int row = 0; row < depth; row++) {
+            counts.addAndGet(row * width + index(hash, row), delta);
+        }
+    }
+
+    public long estimate(String key) {
+        int hash = key.hashCode();
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts.get(row * width + index(hash, row)));
+        }
+        return Math.max(0, min);
+    }
+
+    public void clear() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+    }
+
+    // Independent-ish hash per row: mix the key hash with the row number (murmur3 finalizer)
+    private int index(int hash, int row) {
+        long x = hash * 0x9E3779B97F4A7C15L + (row + 1) * 0xC2B2AE3D27D4EB4FL;
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        return (int) Math.floorMod(x, (long) width);
+    }
+}
@@ -14,11 +14,14 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 public class Hashtag {
+    // Longer names are rejected up front (see HashtagResolver): MySQL's INSERT IGNORE would silently truncate them
+    public static final int MAX_NAME_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(unique = true, nullable = false, length = MAX_NAME_LENGTH)
     private String name; // e.g., "java" (stored without #)
 
     @ManyToMany(mappedBy = "hashtags")
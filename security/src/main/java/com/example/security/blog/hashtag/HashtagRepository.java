@@ -1,7 +1,19 @@
 package com.example.security.blog.hashtag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface HashtagRepository extends JpaRepository<Hashtag, Long> {
     Optional<Hashtag> findByName(String name);
-}
\ No newline at end of file
+
+    List<Hashtag> findByNameIn(Collection<String> names);
+
+    // Every tag use by posts created since the given time (trending rebuild)
+    @Query("SELECT new com.example.security.blog.hashtag.TagUse(h.name, p.createdAt) FROM Hashtag h JOIN h.posts p WHERE p.createdAt >= :since")
+    List<TagUse> findUsesSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,105 @@
+package com.example.security.blog.hashtag;
+
+import com.example.security.common.AfterCommit;
+import com.example.security.common.SqlDialect;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Turns "#java #Spring" in post content into Hashtag rows, in bulk.
+//
+// Known names are answered from an in-memory name -> id dictionary (tags are never deleted).
+// Unknown ones cost one IN query; names still missing after that are inserted with one batched
+// insert-ignore, so two posts introducing the same tag at once cannot fail on the unique key,
+// and then read back with one more IN query.
+// Names longer than the column are rejected before the insert (insert-ignore would truncate them and
+// the read-back would miss), and a tag that is still unresolved after it fails the post instead of
+// silently disappearing from it.
+@Component
+@RequiredArgsConstructor
+public class HashtagResolver {
+
+    private static final Pattern TAG = Pattern.compile("#(\\w+)");
+
+    private final HashtagRepository hashtagRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlDialect sqlDialect;
+
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    // Lower-cased tag names in order of first appearance
+    public static Set<String> extract(String content) {
+        Set<String> names = new LinkedHashSet<>();
+        if (content == null) return names;
+        Matcher matcher = TAG.matcher(content);
+        while (matcher.find()) {
+            names.add(matcher.group(1).toLowerCase());
+        }
+        return names;
+    }
+
+    // Managed references for the names, creating the missing tags. Call inside a transaction.
+    public Set<Hashtag> resolve(Set<String> names) {
+        for (String name : names) {
+            if (name.length() > Hashtag.MAX_NAME_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Hashtag too long (max " + Hashtag.MAX_NAME_LENGTH + " characters)");
+            }
+        }
+
+        Map<String, Long> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            Long id = ids.get(name);
+            if (id != null) resolved.put(name, id);
+            else missing.add(name);
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Long> existing = lookup(missing);
+            ids.putAll(existing);
+            resolved.putAll(existing);
+            missing.removeAll(existing.keySet());
+        }
+
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(sqlDialect.insertIgnore("hashtags", "name", "name"),
+                    missing.stream().map(name -> new Object[]{name}).toList());
+            Map<String, Long> created = lookup(missing);
+            if (created.size() < missing.size()) {
+                missing.removeAll(created.keySet());
+                throw new RuntimeException("Could not create hashtags: " + missing);
+            }
+            resolved.putAll(created);
+            // our own inserts are only real once the post commits
+            AfterCommit.run(() -> ids.putAll(created));
+        }
+
+        Set<Hashtag> hashtags = new HashSet<>();
+        for (Long id : resolved.values()) {
+            hashtags.add(hashtagRepository.getReferenceById(id));
+        }
+        return hashtags;
+    }
+
+    private Map<String, Long> lookup(List<String> names) {
+        Map<String, Long> found = new HashMap<>();
+        for (Hashtag hashtag : hashtagRepository.findByNameIn(names)) {
+            found.put(hashtag.getName(), hashtag.getId());
+        }
+        return found;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.security.blog.hashtag;
+
+import java.time.LocalDateTime;
+
+// One (tag, post time) pair, used to rebuild the trending tracker on startup
+public record TagUse(String name, LocalDateTime createdAt) {
+}
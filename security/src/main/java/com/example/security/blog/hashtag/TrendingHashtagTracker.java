@@ -0,0 +1,197 @@
+package com.example.security.blog.hashtag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sliding-window trending hashtags behind /api/v1/posts/trending-tags.
+//
+// Tag uses go into a ring of hourly buckets (one week), each bucket a count-min sketch.
+// A window's count for a tag is the sum of its estimates over the window's buckets; the
+// top-K is picked from the candidate tags seen inside the window with a small min-heap.
+// Results are cached per window until the next tag use or the next hour.
+@Component
+public class TrendingHashtagTracker {
+
+    private static final int BUCKETS = 24 * 7; // one per hour, longest window = 7d
+
+    private final HashtagRepository hashtagRepository;
+    private final int maxCandidates;
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    // tag -> last hour it was used (only these can be in a top-K)
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    // bumped on every change, invalidates the cached results
+    private final AtomicLong version = new AtomicLong();
+    private final Map<TrendingWindow, Result> results = new ConcurrentHashMap<>();
+
+    public TrendingHashtagTracker(HashtagRepository hashtagRepository,
+                                  @Value("${hashtags.trending.sketch-depth:4}") int depth,
+                                  @Value("${hashtags.trending.sketch-width:2048}") int width,
+                                  @Value("${hashtags.trending.max-candidates:5000}") int maxCandidates) {
+        this.hashtagRepository = hashtagRepository;
+        this.maxCandidates = maxCandidates;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(depth, width));
+        }
+    }
+
+    // Top `limit` tags of the window, most used first
+    public List<String> top(TrendingWindow window, int limit) {
+        long now = hourOf(LocalDateTime.now());
+        long currentVersion = version.get();
+        Result cached = results.get(window);
+        if (cached != null && cached.version == currentVersion && cached.hour == now && cached.limit >= limit) {
+            return cached.tags.subList(0, Math.min(limit, cached.tags.size()));
+        }
+
+        List<String> tags = compute(window, now, limit);
+        results.put(window, new Result(currentVersion, now, limit, tags));
+        return tags;
+    }
+
+    // Changes with every tag use; results also change when the hour rolls over
+    public long version() {
+        return version.get();
+    }
+
+    // EVENTS
+
+    // Tags of a new post, or the tags an edit added. usedAt is always the post's createdAt, the same
+    // time remove() and rebuild() use, so a decrement always lands in the bucket that got the increment
+    public void record(Collection<String> tags, LocalDateTime usedAt) {
+        add(tags, usedAt, 1);
+    }
+
+    // Tags of a deleted post (or dropped by an edit) still inside the window
+    public void remove(Collection<String> tags, LocalDateTime usedAt) {
+        add(tags, usedAt, -1);
+    }
+
+    private void add(Collection<String> tags, LocalDateTime usedAt, long delta) {
+        if (tags.isEmpty() || usedAt == null) return;
+        long hour = hourOf(usedAt);
+        long now = hourOf(LocalDateTime.now());
+        if (hour > now || hour <= now - BUCKETS) return; // outside the ring
+
+        Bucket bucket = bucketFor(hour);
+        for (String tag : tags) {
+            bucket.sketch.add(tag, delta);
+            if (delta > 0) candidates.merge(tag, hour, Math::max);
+        }
+        version.incrementAndGet();
+    }
+
+    // REBUILDS
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                bucket.sketch.clear();
+                bucket.hour = -1;
+            }
+        }
+        candidates.clear();
+
+        List<TagUse> uses = hashtagRepository.findUsesSince(LocalDateTime.now().minusHours(BUCKETS));
+        for (TagUse use : uses) {
+            record(List.of(use.name()), use.createdAt());
+        }
+        version.incrementAndGet();
+        System.out.println("TRENDING HASHTAGS REBUILT from " + uses.size() + " tag uses");
+    }
+
+    // Drop candidates that left the longest window, then the stalest ones over the cap
+    @Scheduled(cron = "${hashtags.trending.prune-cron:0 5 * * * *}")
+    public void prune() {
+        long oldest = hourOf(LocalDateTime.now()) - BUCKETS + 1;
+        candidates.values().removeIf(hour -> hour < oldest);
+
+        int excess = candidates.size() - maxCandidates;
+        if (excess > 0) {
+            candidates.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(candidates::remove);
+        }
+    }
+
+    // INTERNALS
+
+    private List<String> compute(TrendingWindow window, long now, int limit) {
+        long from = now - window.hours() + 1;
+        List<CountMinSketch> sketches = new ArrayList<>();
+        for (long hour = from; hour <= now; hour++) {
+            Bucket bucket = buckets[slot(hour)];
+            if (bucket.hour == hour) sketches.add(bucket.sketch);
+        }
+
+        // min-heap of the best `limit` so far: the root is the one to beat
+        Comparator<Map.Entry<String, Long>> byCount = Map.Entry.<String, Long>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(byCount);
+        candidates.forEach((tag, lastHour) -> {
+            if (lastHour < from) return;
+            long count = 0;
+            for (CountMinSketch sketch : sketches) count += sketch.estimate(tag);
+            if (count <= 0) return;
+
+            heap.offer(Map.entry(tag, count));
+            if (heap.size() > limit) heap.poll();
+        });
+
+        List<String> tags = new ArrayList<>(heap.size());
+        heap.stream().sorted(byCount.reversed()).forEach(entry -> tags.add(entry.getKey()));
+        return List.copyOf(tags);
+    }
+
+    // The bucket for an hour, cleared first if it still holds the hour one week earlier
+    private Bucket bucketFor(long hour) {
+        Bucket bucket = buckets[slot(hour)];
+        if (bucket.hour != hour) {
+            synchronized (bucket) {
+                if (bucket.hour < hour) {
+                    bucket.sketch.clear();
+                    bucket.hour = hour;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) BUCKETS);
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
+    }
+
+    private static class Bucket {
+        final CountMinSketch sketch;
+        volatile long hour = -1;
+
+        Bucket(CountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+    }
+
+    private record Result(long version, long hour, int limit, List<String> tags) {
+    }
+}
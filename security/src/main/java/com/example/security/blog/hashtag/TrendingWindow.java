@@ -0,0 +1,31 @@
+package com.example.security.blog.hashtag;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Windows supported by /api/v1/posts/trending-tags?window=...
+public enum TrendingWindow {
+    HOUR("1h", 1),
+    DAY("24h", 24),
+    WEEK("7d", 24 * 7);
+
+    private final String param;
+    private final int hours;
+
+    TrendingWindow(String param, int hours) {
+        this.param = param;
+        this.hours = hours;
+    }
+
+    public int hours() {
+        return hours;
+    }
+
+    public static TrendingWindow fromParam(String param) {
+        if (param == null || param.isBlank()) return WEEK;
+        for (TrendingWindow window : values()) {
+            if (window.param.equalsIgnoreCase(param)) return window;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown window: " + param + " (use 1h, 24h or 7d)");
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.security.blog.like;
+
+import com.example.security.blog.like.dto.PostLikeResponse;
+import com.example.security.blog.post.HotPostRanking;
+import com.example.security.blog.post.PostView;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.ContentVersions;
+import com.example.security.user.entity.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+// Write-behind for likes: like/unlike is acknowledged from memory and written to post_likes in
+// batches every likes.write-behind.flush-ms, instead of each click taking row locks on a hot post.
+//
+// State is striped per post: a click only locks its own post's Stripe, holding the latest wanted
+// state per user. Flips coalesce: like -> unlike -> like before a flush is one insert (or nothing,
+// when it ends where the database already is). Every accepted click is in LikeLog before the
+// response goes out, and the log is replayed on startup.
+//
+// Until a batch has committed, responses overlay the buffered state (pendingDelta / pendingState)
+// on what the database says, so the clicking user and everyone else see the new count at once.
+//
+// Clicks never write to the database: once max-pending changes are buffered, new clicks get a 503
+// until the scheduler's flush has caught up. A batch that keeps failing is retried max-attempts times,
+// then written change by change and the changes that still fail (e.g. a deleted user) are dropped.
+@Component
+public class LikeBuffer {
+
+    // Wanted state for one user on one post; before is what the database had when it was buffered
+    private record Change(boolean before, LikeLog.Entry wanted) {
+    }
+
+    private static final class Stripe {
+        private final Map<Long, Change> byUser = new HashMap<>();
+        private long delta;
+    }
+
+    private final PostViewCache postViewCache;
+    private final PostLikers postLikers;
+    private final LikeWriter likeWriter;
+    private final LikeLog likeLog;
+    private final HotPostRanking hotPostRanking;
+    private final ContentVersions contentVersions;
+    private final TransactionTemplate ownTransaction;
+    private final boolean enabled;
+    private final int maxPending;
+    private final int maxAttempts;
+
+    // consecutive single-change failures at the start of writeOneByOne taken as the database being down
+    private static final int OUTAGE_PROBE = 3;
+
+    private final Map<Long, Stripe> pending = new ConcurrentHashMap<>();
+    // the batch being written right now, still overlaid until it commits
+    private volatile Map<Long, Stripe> inflight = Map.of();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    // clicks share the read lock; taking a batch (swap + log rotation) takes the write lock
+    private final ReentrantReadWriteLock swap = new ReentrantReadWriteLock();
+    // flushes failed in a row, only touched inside flush()
+    private int failedFlushes;
+
+    public LikeBuffer(PostViewCache postViewCache, PostLikers postLikers, LikeWriter likeWriter,
+                      LikeLog likeLog, HotPostRanking hotPostRanking, ContentVersions contentVersions,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${likes.write-behind.enabled:true}") boolean enabled,
+                      @Value("${likes.write-behind.max-pending:50000}") int maxPending,
+                      @Value("${likes.write-behind.max-attempts:5}") int maxAttempts) {
+        this.postViewCache = postViewCache;
+        this.postLikers = postLikers;
+        this.likeWriter = likeWriter;
+        this.likeLog = likeLog;
+        this.hotPostRanking = hotPostRanking;
+        this.contentVersions = contentVersions;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // CLICKS
+
+    public PostLikeResponse set(Long postId, User user, boolean liked, boolean notify) {
+        return apply(postId, user, current -> liked, notify);
+    }
+
+    public PostLikeResponse toggle(Long postId, User user, boolean notify) {
+        return apply(postId, user, current -> !current, notify);
+    }
+
+    private PostLikeResponse apply(Long postId, User user, UnaryOperator<Boolean> next, boolean notify) {
+        PostView post = postViewCache.get(postId).orElseThrow(() -> new RuntimeException("Post not found"));
+        if (pendingCount.get() >= maxPending) {
+            // back-pressure without touching the database on the request path (the request already holds a connection)
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending likes, try again shortly");
+        }
+
+        // Committed state, only needed when nothing is buffered for this user; read outside any lock
+        boolean stored = pendingState(postId, user.getId())
+                .orElseGet(() -> postLikers.contains(post, user.getId()));
+
+        boolean liked;
+        boolean changed;
+        long seq = 0;
+        swap.readLock().lock();
+        try {
+            Stripe stripe = pending.computeIfAbsent(postId, id -> new Stripe());
+            synchronized (stripe) {
+                Change existing = stripe.byUser.get(user.getId());
+                Boolean inflightState = (existing == null) ? stateIn(inflight, postId, user.getId()) : null;
+                boolean current = (existing != null) ? existing.wanted().liked()
+                        : (inflightState != null) ? inflightState
+                        : stored;
+                liked = next.apply(current);
+                changed = liked != current;
+
+                if (changed) {
+                    boolean before = (existing != null) ? existing.before() : current;
+                    LikeLog.Entry wanted = new LikeLog.Entry(postId, user.getId(), liked, notify, LocalDateTime.now());
+                    if (liked == before) {
+                        stripe.byUser.remove(user.getId()); // flipped back: nothing to write
+                        pendingCount.decrementAndGet();
+                    } else {
+                        if (existing == null) pendingCount.incrementAndGet();
+                        stripe.byUser.put(user.getId(), new Change(before, wanted));
+                    }
+                    stripe.delta += liked ? 1 : -1;
+                    seq = likeLog.append(wanted);
+                }
+            }
+        } finally {
+            swap.readLock().unlock();
+        }
+
+        if (changed) {
+            likeLog.sync(seq); // durable before we say so
+            contentVersions.likeChanged(postId, user.getEmail());
+        }
+        return PostLikeResponse.builder()
+                .postId(postId)
+                .likeCount(Math.max(0, post.likeCount() + pendingDelta(postId)))
+                .likedByCurrentUser(liked)
+                .build();
+    }
+
+    // Drop whatever is buffered for a post that is being deleted
+    public void discard(Long postId) {
+        swap.readLock().lock();
+        try {
+            Stripe stripe = pending.remove(postId);
+            if (stripe != null) {
+                synchronized (stripe) {
+                    pendingCount.addAndGet(-stripe.byUser.size());
+                }
+            }
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    // OVERLAY (read paths)
+
+    // Buffered like count change for a post, not yet in posts.like_count
+    public long pendingDelta(Long postId) {
+        swap.readLock().lock();
+        try {
+            return deltaIn(pending, postId) + deltaIn(inflight, postId);
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    // The user's buffered state for a post; empty when the database is up to date
+    public Optional<Boolean> pendingState(Long postId, Long userId) {
+        swap.readLock().lock();
+        try {
+            Boolean state = stateIn(pending, postId, userId);
+            return Optional.ofNullable((state != null) ? state : stateIn(inflight, postId, userId));
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    private static long deltaIn(Map<Long, Stripe> stripes, Long postId) {
+        Stripe stripe = stripes.get(postId);
+        if (stripe == null) return 0;
+        synchronized (stripe) {
+            return stripe.delta;
+        }
+    }
+
+    private static Boolean stateIn(Map<Long, Stripe> stripes, Long postId, Long userId) {
+        Stripe stripe = stripes.get(postId);
+        if (stripe == null) return null;
+        synchronized (stripe) {
+            Change change = stripe.byUser.get(userId);
+            return (change == null) ? null : change.wanted().liked();
+        }
+    }
+
+    // FLUSH
+
+    @Scheduled(fixedDelayString = "${likes.write-behind.flush-ms:200}")
+    public synchronized void flush() {
+        Map<Long, Stripe> batch;
+        long sealed;
+        swap.writeLock().lock();
+        try {
+            if (pending.isEmpty()) return;
+            batch = new HashMap<>(pending);
+            pending.clear();
+            pendingCount.set(0);
+            inflight = batch;
+            sealed = likeLog.rotate();
+        } finally {
+            swap.writeLock().unlock();
+        }
+
+        List<LikeLog.Entry> changes = new ArrayList<>();
+        batch.values().forEach(stripe -> stripe.byUser.values().forEach(change -> changes.add(change.wanted())));
+        try {
+            Map<Long, Long> applied = writeCommitted(changes);
+            applied.forEach(hotPostRanking::onLike);
+        } catch (RuntimeException e) {
+            if (++failedFlushes < maxAttempts) {
+                System.out.println("LIKE FLUSH FAILED (" + changes.size() + " changes, attempt " + failedFlushes
+                        + " of " + maxAttempts + ", will retry): " + e.getMessage());
+                requeue(batch);
+                return;
+            }
+            List<LikeLog.Entry> failed = writeOneByOne(changes);
+            if (failed.size() == changes.size()) {
+                // nothing goes through at all: the database is down, not one bad row. Keep it all
+                System.out.println("LIKE FLUSH FAILED (" + changes.size() + " changes, database unavailable, will retry): " + e.getMessage());
+                failedFlushes = 0;
+                requeue(batch);
+                return;
+            }
+            failed.forEach(change -> System.out.println("LIKE DROPPED after " + maxAttempts + " attempts: " + change));
+        }
+        failedFlushes = 0;
+        inflight = Map.of();
+        likeLog.deleteUpTo(sealed); // only once the batch has committed
+    }
+
+    // A batch always commits on its own, never as part of whatever transaction happens to be bound
+    // (a rollback there would lose changes whose log is already deleted)
+    private Map<Long, Long> writeCommitted(Collection<LikeLog.Entry> changes) {
+        return ownTransaction.execute(status -> likeWriter.write(changes));
+    }
+
+    // One transaction per change, so a single bad row no longer holds back every like batched with it.
+    // Returns the changes that still failed; all of them when the first few fail too (database down).
+    private List<LikeLog.Entry> writeOneByOne(List<LikeLog.Entry> changes) {
+        List<LikeLog.Entry> failed = new ArrayList<>();
+        int succeeded = 0;
+        for (LikeLog.Entry change : changes) {
+            try {
+                writeCommitted(List.of(change)).forEach(hotPostRanking::onLike);
+                succeeded++;
+            } catch (RuntimeException e) {
+                failed.add(change);
+                if (succeeded == 0 && failed.size() == OUTAGE_PROBE) return changes;
+            }
+        }
+        return failed;
+    }
+
+    // Put a failed batch back under anything clicked since; its log segments stay until a later flush commits
+    private void requeue(Map<Long, Stripe> batch) {
+        swap.writeLock().lock();
+        try {
+            batch.forEach((postId, failed) -> {
+                Stripe stripe = pending.computeIfAbsent(postId, id -> new Stripe());
+                failed.byUser.forEach((userId, change) -> {
+                    Change newer = stripe.byUser.get(userId);
+                    if (newer == null) {
+                        stripe.byUser.put(userId, change);
+                    } else if (newer.wanted().liked() == change.before()) {
+                        stripe.byUser.remove(userId); // back where the database is
+                    } else {
+                        stripe.byUser.put(userId, new Change(change.before(), newer.wanted()));
+                    }
+                });
+                stripe.delta += failed.delta;
+            });
+            pendingCount.set(pending.values().stream().mapToInt(s -> s.byUser.size()).sum());
+            inflight = Map.of();
+        } finally {
+            swap.writeLock().unlock();
+        }
+    }
+
+    // Likes acknowledged before a crash: the last state per (post, user) wins
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Map<String, LikeLog.Entry> latest = new LinkedHashMap<>();
+        for (LikeLog.Entry entry : likeLog.readPrevious()) {
+            latest.put(entry.postId() + ":" + entry.userId(), entry);
+        }
+        if (!latest.isEmpty()) {
+            Map<Long, Long> applied = writeCommitted(latest.values());
+            applied.forEach(hotPostRanking::onLike);
+            System.out.println("LIKE LOG REPLAYED: " + latest.size() + " changes");
+        }
+        likeLog.deleteUpTo(likeLog.previousSegment());
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+}
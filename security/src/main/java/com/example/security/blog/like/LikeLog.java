@@ -0,0 +1,195 @@
+package com.example.security.blog.like;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Local append log behind LikeBuffer: a like is acknowledged only once its line is on disk,
+// so buffered likes survive a crash and are replayed into post_likes on the next start.
+//
+// The log is a series of segments (likes-<seq>.log). LikeBuffer rotates to a new segment every
+// time it takes a batch to flush, and deletes the sealed ones once the batch has committed.
+// Concurrent appends share one fsync (group commit): whoever syncs first covers everyone before them.
+@Component
+public class LikeLog {
+
+    // One buffered like/unlike as written to (and read back from) the log
+    public record Entry(Long postId, Long userId, boolean liked, boolean notifyAuthor, LocalDateTime at) {
+    }
+
+    private final Path dir;
+    private final boolean fsync;
+    private final Object syncLock = new Object();
+
+    private long segment;
+    private FileOutputStream out;
+    private BufferedWriter writer;
+    private long appended;
+    private volatile long synced;
+
+    public LikeLog(@Value("${likes.write-behind.log-dir:data/like-log}") String dir,
+                   @Value("${likes.write-behind.fsync:true}") boolean fsync) {
+        this.dir = Path.of(dir);
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(this.dir);
+            this.segment = segments().stream().mapToLong(LikeLog::seq).max().orElse(0) + 1;
+            open();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open like log in " + dir, e);
+        }
+    }
+
+    // Returns a sequence number to pass to sync()
+    public synchronized long append(Entry entry) {
+        try {
+            writer.write(entry.postId() + " " + entry.userId() + " " + (entry.liked() ? 1 : 0) + " "
+                    + (entry.notifyAuthor() ? 1 : 0) + " " + entry.at().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            writer.newLine();
+            return ++appended;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write like log", e);
+        }
+    }
+
+    // Blocks until everything up to seq is on disk
+    public void sync(long seq) {
+        if (synced >= seq) return;
+        synchronized (syncLock) {
+            if (synced >= seq) return;
+            long upTo;
+            FileChannel channel;
+            synchronized (this) {
+                upTo = appended;
+                channel = flushWriter();
+            }
+            force(channel);
+            synced = upTo;
+        }
+    }
+
+    // Seals the current segment and starts a new one; returns the sealed segment number
+    public long rotate() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                force(flushWriter());
+                synced = appended;
+                long sealed = segment;
+                try {
+                    writer.close();
+                    segment++;
+                    open();
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not rotate like log", e);
+                }
+                return sealed;
+            }
+        }
+    }
+
+    // Segments up to and including upTo have been written to the database
+    public void deleteUpTo(long upTo) {
+        for (Path file : segments()) {
+            if (seq(file) <= upTo) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.out.println("LIKE LOG: could not delete " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Everything in the segments left over from a previous run, oldest first
+    public List<Entry> readPrevious() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : segments()) {
+            if (seq(file) >= segment) continue;
+            try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                lines.map(LikeLog::parse).filter(e -> e != null).forEach(entries::add);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read like log " + file, e);
+            }
+        }
+        return entries;
+    }
+
+    public long previousSegment() {
+        return segment - 1;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                force(flushWriter());
+                writer.close();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        out = new FileOutputStream(dir.resolve("likes-" + segment + ".log").toFile(), true);
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private FileChannel flushWriter() {
+        try {
+            writer.flush();
+            return out.getChannel();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write like log", e);
+        }
+    }
+
+    private void force(FileChannel channel) {
+        if (!fsync) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not sync like log", e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().matches("likes-\\d+\\.log"))
+                    .sorted((a, b) -> Long.compare(seq(a), seq(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list like log " + dir, e);
+        }
+    }
+
+    private static long seq(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("likes-".length(), name.length() - ".log".length()));
+    }
+
+    // A torn last line (crash mid-write) was never acknowledged, so it is skipped
+    private static Entry parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 5) return null;
+        try {
+            return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), "1".equals(parts[2]), "1".equals(parts[3]),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[4])), ZoneId.systemDefault()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
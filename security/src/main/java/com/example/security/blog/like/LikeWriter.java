@@ -0,0 +1,162 @@
+package com.example.security.blog.like;
+
+import com.example.security.blog.post.PostRepository;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.SqlDialect;
+import com.example.security.notification.NotificationService;
+import com.example.security.notification.NotificationType;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// All writes to post_likes. Single clicks (write-behind off) and batches of buffered clicks
+// (see LikeBuffer: one batched insert-ignore, one batched delete, one counter update per post).
+// Idempotent: row counts decide what actually changed, so repeating a click or a batch is harmless.
+@Component
+@RequiredArgsConstructor
+public class LikeWriter {
+
+    private static final String DELETE_LIKE = "DELETE FROM post_likes WHERE post_id = ? AND user_id = ?";
+    private static final String EXISTING_PAIRS =
+            "SELECT post_id, user_id FROM post_likes WHERE post_id IN (:postIds) AND user_id IN (:userIds)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final SqlDialect sqlDialect;
+    private final PostRepository postRepository;
+    private final PostViewCache postViewCache;
+    private final NotificationService notificationService;
+    private final PostLikers postLikers;
+
+    // SINGLE CLICKS (write-behind off): one statement each, and the row count says whether anything
+    // changed, so double clicks neither read first nor trip over the (post_id, user_id) unique key
+
+    @Transactional
+    public boolean like(Long postId, Long userId, boolean notifyAuthor) {
+        int rows = jdbcTemplate.update(insertLike(), postId, userId, Timestamp.valueOf(LocalDateTime.now()));
+        if (rows == 0) return false; // already liked
+        postLikers.added(postId, userId);
+        postRepository.adjustLikeCount(postId, 1);
+        postViewCache.invalidate(postId);
+        if (notifyAuthor) notifyAuthor(postId, userId);
+        return true;
+    }
+
+    @Transactional
+    public boolean unlike(Long postId, Long userId) {
+        int rows = jdbcTemplate.update(DELETE_LIKE, postId, userId);
+        if (rows == 0) return false; // was not liked
+        postLikers.removed(postId, userId);
+        postRepository.adjustLikeCount(postId, -1);
+        postViewCache.invalidate(postId);
+        return true;
+    }
+
+    // BATCHES (LikeBuffer)
+
+    // Returns postId -> like count change that was applied
+    @Transactional
+    public Map<Long, Long> write(Collection<LikeLog.Entry> changes) {
+        // posts deleted in the meantime would fail the whole batch on the foreign key
+        Set<Long> existing = new HashSet<>(postRepository.findExistingIds(
+                changes.stream().map(LikeLog.Entry::postId).distinct().toList()));
+
+        List<LikeLog.Entry> likes = new ArrayList<>();
+        List<LikeLog.Entry> unlikes = new ArrayList<>();
+        for (LikeLog.Entry change : changes) {
+            if (!existing.contains(change.postId())) continue;
+            (change.liked() ? likes : unlikes).add(change);
+        }
+
+        // Only consulted for rows the driver reports as SUCCESS_NO_INFO (see applied)
+        Set<String> before = (likes.isEmpty() && unlikes.isEmpty()) ? Set.of() : existingPairs(likes, unlikes);
+
+        Map<Long, Long> deltas = new HashMap<>();
+        int[] inserted = jdbcTemplate.batchUpdate(insertLike(),
+                likes.stream().map(l -> new Object[]{l.postId(), l.userId(), Timestamp.valueOf(l.at())}).toList());
+        for (int i = 0; i < likes.size(); i++) {
+            LikeLog.Entry like = likes.get(i);
+            if (!applied(inserted[i], !before.contains(pair(like)))) continue;
+            postLikers.added(like.postId(), like.userId());
+            deltas.merge(like.postId(), 1L, Long::sum);
+            if (like.notifyAuthor()) notifyAuthor(like.postId(), like.userId());
+        }
+
+        int[] deleted = jdbcTemplate.batchUpdate(DELETE_LIKE,
+                unlikes.stream().map(l -> new Object[]{l.postId(), l.userId()}).toList());
+        for (int i = 0; i < unlikes.size(); i++) {
+            LikeLog.Entry unlike = unlikes.get(i);
+            if (!applied(deleted[i], before.contains(pair(unlike)))) continue;
+            postLikers.removed(unlike.postId(), unlike.userId());
+            deltas.merge(unlike.postId(), -1L, Long::sum);
+        }
+
+        deltas.forEach((postId, delta) -> {
+            if (delta != 0) postRepository.adjustLikeCount(postId, delta);
+            postViewCache.invalidate(postId);
+        });
+        return deltas;
+    }
+
+    // MySQL: INSERT IGNORE, PostgreSQL: ON CONFLICT DO NOTHING -> 0 rows when the like exists
+    private String insertLike() {
+        return sqlDialect.insertIgnore("post_likes", "post_id, user_id, created_at", "post_id, user_id");
+    }
+
+    // Drivers may report SUCCESS_NO_INFO for batched statements, which says nothing about whether the
+    // row changed: those fall back to what post_likes held before the batch. Counting them as changed
+    // would re-add +1 and re-notify for every like of a replayed, already committed batch.
+    //
+    // Keep the drivers' batch rewriting OFF (MySQL rewriteBatchedStatements, PostgreSQL
+    // reWriteBatchedInserts): rewritten batches report SUCCESS_NO_INFO for every row, so the fallback
+    // then decides every row, and it cannot see clicks committed concurrently by the single-click path.
+    private static boolean applied(int rows, boolean changedPerLookup) {
+        return (rows == Statement.SUCCESS_NO_INFO) ? changedPerLookup : rows > 0;
+    }
+
+    // "postId:userId" of the batch's pairs already in post_likes (one query; a superset is fetched and filtered)
+    private Set<String> existingPairs(List<LikeLog.Entry> likes, List<LikeLog.Entry> unlikes) {
+        List<LikeLog.Entry> all = new ArrayList<>(likes);
+        all.addAll(unlikes);
+        Set<String> wanted = new HashSet<>();
+        all.forEach(entry -> wanted.add(pair(entry)));
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("postIds", all.stream().map(LikeLog.Entry::postId).distinct().toList())
+                .addValue("userIds", all.stream().map(LikeLog.Entry::userId).distinct().toList());
+        Set<String> found = new HashSet<>();
+        namedJdbcTemplate.query(EXISTING_PAIRS, params, (ResultSet rs) -> {
+            String pair = rs.getLong("post_id") + ":" + rs.getLong("user_id");
+            if (wanted.contains(pair)) found.add(pair);
+        });
+        return found;
+    }
+
+    private static String pair(LikeLog.Entry entry) {
+        return entry.postId() + ":" + entry.userId();
+    }
+
+    // The author id comes from the cached post row; storing happens after commit (NotificationQueue)
+    private void notifyAuthor(Long postId, Long userId) {
+        postViewCache.get(postId).ifPresent(post -> notificationService.createNotification(
+                post.authorId(),  // Recipient (Post Owner)
+                userId,           // Actor (Who liked)
+                NotificationType.LIKE,
+                postId));
+    }
+}
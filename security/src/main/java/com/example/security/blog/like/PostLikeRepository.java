@@ -1,20 +1,27 @@
 package com.example.security.blog.like;
 
 import com.example.security.blog.post.Post;
-import com.example.security.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
 
     long countByPost(Post post);
 
-    boolean existsByPostAndUser(Post post, User user);
+    boolean existsByPostIdAndUserId(Long postId, Long userId);
 
-    Optional<PostLike> findByPostAndUser(Post post, User user);
+    void deleteByPostId(Long postId);
 
-    void deleteByPostAndUser(Post post, User user);
+    // BULK READS (one query per page instead of one per post)
+    // Which of these posts did the user like?
+    @Query("SELECT l.post.id FROM PostLike l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
 
-    void deleteByPostId(Long postId);
+    // Everyone who liked these posts (see PostLikers)
+    @Query("SELECT new com.example.security.blog.like.PostLiker(l.post.id, l.user.id) FROM PostLike l WHERE l.post.id IN :postIds")
+    List<PostLiker> findLikers(@Param("postIds") Collection<Long> postIds);
 }
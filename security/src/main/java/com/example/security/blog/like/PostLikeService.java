@@ -1,81 +1,79 @@
 package com.example.security.blog.like;
 
 import com.example.security.blog.like.dto.PostLikeResponse;
-import com.example.security.blog.post.Post;
-import com.example.security.blog.post.PostRepository;
+import com.example.security.blog.post.HotPostRanking;
+import com.example.security.blog.post.PostView;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.ContentVersions;
+import com.example.security.user.CurrentUserProvider;
 import com.example.security.user.entity.User;
-import com.example.security.user.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-
 @Service
 @RequiredArgsConstructor
 public class PostLikeService {
 
-    private final PostLikeRepository postLikeRepository;
-    private final PostRepository postRepository;
-    private final UserRepository userRepository;
-
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName(); // username = email
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
-    private Post getPostOrThrow(Long postId) {
-        return postRepository.findById(postId)
+    private final PostLikers postLikers;
+    private final CurrentUserProvider currentUserProvider;
+    private final HotPostRanking hotPostRanking;
+    private final ContentVersions contentVersions;
+    private final PostViewCache postViewCache;
+    private final LikeBuffer likeBuffer;
+    private final LikeWriter likeWriter;
+
+    // Existence and current count from PostViewCache (usually no query at all)
+    private PostView getPostOrThrow(Long postId) {
+        return postViewCache.get(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
     }
 
+    // Idempotent: liking twice is a no-op that returns the same state, never a unique-key error
+    @Transactional
     public PostLikeResponse likePost(Long postId) {
-        User user = getCurrentUser();
-        Post post = getPostOrThrow(postId);
+        User user = currentUserProvider.get();
+        if (likeBuffer.isEnabled()) return likeBuffer.set(postId, user, true, false);
 
-        // If already liked, just return status
-        if (postLikeRepository.existsByPostAndUser(post, user)) {
-            return getStatus(post, user);
-        }
+        PostView post = getPostOrThrow(postId);
+        boolean changed = likeWriter.like(postId, user.getId(), false); // one INSERT ... IGNORE / ON CONFLICT DO NOTHING
+        if (changed) afterChange(postId, user, 1);
 
-        PostLike like = PostLike.builder()
-                .post(post)
-                .user(user)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        postLikeRepository.save(like);
-
-        return getStatus(post, user);
+        // count read before the insert, so add it ourselves instead of re-counting
+        return toResponse(postId, post.likeCount() + (changed ? 1 : 0), true);
     }
 
+    @Transactional
     public PostLikeResponse unlikePost(Long postId) {
-        User user = getCurrentUser();
-        Post post = getPostOrThrow(postId);
+        User user = currentUserProvider.get();
+        if (likeBuffer.isEnabled()) return likeBuffer.set(postId, user, false, false);
 
-        postLikeRepository.findByPostAndUser(post, user)
-                .ifPresent(postLikeRepository::delete);
+        PostView post = getPostOrThrow(postId);
+        boolean changed = likeWriter.unlike(postId, user.getId()); // one DELETE by (post_id, user_id)
+        if (changed) afterChange(postId, user, -1);
 
-        return getStatus(post, user);
+        return toResponse(postId, Math.max(0, post.likeCount() - (changed ? 1 : 0)), false);
     }
 
     public PostLikeResponse getLikeStatus(Long postId) {
-        User user = getCurrentUser();
-        Post post = getPostOrThrow(postId);
+        User user = currentUserProvider.get();
+        PostView post = getPostOrThrow(postId);
 
-        return getStatus(post, user);
+        // buffered clicks that are not in post_likes yet
+        boolean liked = likeBuffer.pendingState(postId, user.getId())
+                .orElseGet(() -> postLikers.contains(post, user.getId()));
+        return toResponse(postId, Math.max(0, post.likeCount() + likeBuffer.pendingDelta(postId)), liked);
     }
 
-    private PostLikeResponse getStatus(Post post, User user) {
-        long count = postLikeRepository.countByPost(post);
-        boolean liked = postLikeRepository.existsByPostAndUser(post, user);
+    private void afterChange(Long postId, User user, long delta) {
+        hotPostRanking.onLike(postId, delta);
+        contentVersions.likeChanged(postId, user.getEmail());
+    }
 
+    private PostLikeResponse toResponse(Long postId, long likeCount, boolean liked) {
         return PostLikeResponse.builder()
-                .postId(post.getId())
-                .likeCount(count)
+                .postId(postId)
+                .likeCount(likeCount)
                 .likedByCurrentUser(liked)
                 .build();
     }
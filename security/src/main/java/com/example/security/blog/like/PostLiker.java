@@ -0,0 +1,5 @@
+package com.example.security.blog.like;
+
+// One row of post_likes, reduced to the two ids
+public record PostLiker(Long postId, Long userId) {
+}
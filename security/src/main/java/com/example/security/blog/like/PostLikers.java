@@ -0,0 +1,185 @@
+package com.example.security.blog.like;
+
+import com.example.security.blog.post.PostView;
+import com.example.security.common.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Who liked each recent post, in memory, so "did the viewer like these N posts" needs no query.
+//
+// Per post a sorted long[] of user ids: membership is a binary search, like/unlike copies the
+// array (copy-on-write, readers never lock). Sets are loaded lazily from post_likes, a page of
+// misses in one IN query, and kept up to date by LikeWriter after each commit.
+//
+// Memory: 8 bytes per like plus ~100 bytes per post, so 10k likes ~ 80 KB. The total is capped by
+// likes.liker-sets.max-bytes (Caffeine evicts the least used posts first). Posts older than
+// likes.liker-sets.max-post-age-days, and posts with more than likes.liker-sets.max-likes-per-post
+// likes, are not cached at all and are answered from the database: loading a viral post's whole
+// liker list to answer one membership check costs more than the check (and a set heavier than the
+// budget would be evicted as soon as it is cached).
+@Component
+public class PostLikers {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 100;
+
+    private final PostLikeRepository postLikeRepository;
+    private final Cache<Long, long[]> likers;
+    private final int maxPostAgeDays;
+    private final long maxLikesPerPost;
+    // postId -> stamp of its last committed write, long enough to outlive any load in progress
+    private final AtomicLong writes = new AtomicLong();
+    private final Cache<Long, Long> lastWrites = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    public PostLikers(PostLikeRepository postLikeRepository,
+                      @Value("${likes.liker-sets.max-bytes:67108864}") long maxBytes,
+                      @Value("${likes.liker-sets.max-post-age-days:14}") int maxPostAgeDays,
+                      @Value("${likes.liker-sets.max-likes-per-post:10000}") long maxLikesPerPost) {
+        this.postLikeRepository = postLikeRepository;
+        this.maxPostAgeDays = maxPostAgeDays;
+        this.maxLikesPerPost = maxLikesPerPost;
+        this.likers = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long postId, long[] ids) -> ENTRY_OVERHEAD_BYTES + 8 * ids.length)
+                .build();
+    }
+
+    // READS
+
+    // Which of these posts the user liked: cached ones from memory, the rest in one query
+    public Set<Long> likedAmong(Long userId, List<PostView> posts) {
+        Set<Long> liked = new HashSet<>();
+        List<Long> cached = new ArrayList<>();
+        List<Long> uncached = new ArrayList<>();
+        for (PostView post : posts) {
+            (isCached(post) ? cached : uncached).add(post.id());
+        }
+
+        getAll(cached).forEach((postId, ids) -> {
+            if (Arrays.binarySearch(ids, userId) >= 0) liked.add(postId);
+        });
+        if (!uncached.isEmpty()) {
+            liked.addAll(postLikeRepository.findLikedPostIds(userId, uncached));
+        }
+        return liked;
+    }
+
+    public boolean contains(PostView post, Long userId) {
+        if (!isCached(post)) return postLikeRepository.existsByPostIdAndUserId(post.id(), userId);
+        return Arrays.binarySearch(getAll(List.of(post.id())).get(post.id()), userId) >= 0;
+    }
+
+    private Map<Long, long[]> getAll(Collection<Long> postIds) {
+        if (postIds.isEmpty()) return Map.of();
+        Map<Long, long[]> found = new HashMap<>(likers.getAllPresent(postIds));
+        Set<Long> missing = new HashSet<>(postIds);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) return found;
+
+        // A like committed while we were reading may have skipped the (still absent) entry:
+        // cache first, then drop the set again if any write to the post came after the read began
+        long stamp = writes.get();
+        load(missing).forEach((postId, ids) -> {
+            // likeCount was stale and the post is over the cap after all: answer this once, don't keep it
+            if (ids.length > maxLikesPerPost) {
+                found.put(postId, ids);
+                return;
+            }
+            likers.asMap().putIfAbsent(postId, ids);
+            Long written = lastWrites.getIfPresent(postId);
+            if (written != null && written > stamp) likers.invalidate(postId);
+            found.put(postId, ids);
+        });
+        return found;
+    }
+
+    private Map<Long, long[]> load(Set<Long> postIds) {
+        Map<Long, List<Long>> byPost = new HashMap<>();
+        postIds.forEach(id -> byPost.put(id, new ArrayList<>()));
+        for (PostLiker row : postLikeRepository.findLikers(List.copyOf(postIds))) {
+            byPost.get(row.postId()).add(row.userId());
+        }
+
+        Map<Long, long[]> loaded = new HashMap<>();
+        byPost.forEach((postId, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            loaded.put(postId, sorted);
+        });
+        return loaded;
+    }
+
+    private boolean isCached(PostView post) {
+        LocalDateTime createdAt = post.createdAt();
+        return createdAt != null && createdAt.isAfter(LocalDateTime.now().minusDays(maxPostAgeDays))
+                && post.likeCount() <= maxLikesPerPost;
+    }
+
+    // WRITES (committed rows only; posts that are not loaded are left alone)
+
+    public void added(Long postId, Long userId) {
+        AfterCommit.run(() -> {
+            stampWrite(postId);
+            likers.asMap().computeIfPresent(postId, (id, ids) -> with(ids, userId));
+        });
+    }
+
+    public void removed(Long postId, Long userId) {
+        AfterCommit.run(() -> {
+            stampWrite(postId);
+            likers.asMap().computeIfPresent(postId, (id, ids) -> without(ids, userId));
+        });
+    }
+
+    public void evict(Long postId) {
+        AfterCommit.run(() -> {
+            stampWrite(postId);
+            likers.invalidate(postId);
+        });
+    }
+
+    private void stampWrite(Long postId) {
+        lastWrites.put(postId, writes.incrementAndGet());
+    }
+
+    public Map<String, Long> stats() {
+        long likes = likers.asMap().values().stream().mapToLong(ids -> ids.length).sum();
+        return Map.of("posts", likers.estimatedSize(), "likes", likes,
+                "bytes", likers.estimatedSize() * ENTRY_OVERHEAD_BYTES + likes * 8);
+    }
+
+    private static long[] with(long[] ids, long userId) {
+        int at = Arrays.binarySearch(ids, userId);
+        if (at >= 0) return ids;
+        int insert = -at - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insert);
+        copy[insert] = userId;
+        System.arraycopy(ids, insert, copy, insert + 1, ids.length - insert);
+        return copy;
+    }
+
+    private static long[] without(long[] ids, long userId) {
+        int at = Arrays.binarySearch(ids, userId);
+        if (at < 0) return ids;
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, at);
+        System.arraycopy(ids, at + 1, copy, at, ids.length - at - 1);
+        return copy;
+    }
+}
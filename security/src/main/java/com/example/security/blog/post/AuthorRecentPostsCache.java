@@ -0,0 +1,65 @@
+package com.example.security.blog.post;
+
+import com.example.security.common.AfterCommit;
+import com.example.security.common.PageCursor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+// The newest `depth` post refs of each author, loaded on first use with one indexed query
+// on (author_id, created_at). Serves profile pages and the pull side of the following feed.
+// PostService invalidates an author's entry whenever they create/update/delete a post, after commit
+// (earlier, a concurrent read could load the pre-commit list back). Entries also expire after
+// posts.author-cache.ttl-seconds, so a missed invalidation heals itself.
+@Component
+public class AuthorRecentPostsCache {
+
+    private final LoadingCache<Long, List<PostRef>> cache;
+    private final int depth;
+
+    public AuthorRecentPostsCache(PostRepository postRepository,
+                                  @Value("${posts.author-cache.depth:100}") int depth,
+                                  @Value("${posts.author-cache.max-authors:10000}") long maxAuthors,
+                                  @Value("${posts.author-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.depth = depth;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxAuthors)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(authorId -> List.copyOf(postRepository.findRecentRefsByAuthorId(authorId, PageRequest.of(0, depth))));
+    }
+
+    // Newest first. If the list is `depth()` long, the author may have older posts than these.
+    public List<PostRef> recent(Long authorId) {
+        return cache.get(authorId);
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    // Up to fetchSize refs after the cursor (null = from the newest), or empty if the
+    // page reaches past what is cached and has to come from the database
+    public Optional<List<PostRef>> page(Long authorId, PageCursor after, int fetchSize) {
+        List<PostRef> recent = recent(authorId);
+        List<PostRef> page = recent.stream().filter(ref -> isAfter(ref, after)).limit(fetchSize).toList();
+        if (page.size() < fetchSize && recent.size() >= depth) return Optional.empty();
+        return Optional.of(page);
+    }
+
+    private static boolean isAfter(PostRef ref, PageCursor cursor) {
+        if (cursor == null) return true;
+        int byTime = ref.createdAt().compareTo(cursor.createdAt());
+        return byTime < 0 || (byTime == 0 && ref.id() < cursor.id());
+    }
+
+    public void invalidate(Long authorId) {
+        AfterCommit.run(() -> cache.invalidate(authorId));
+    }
+}
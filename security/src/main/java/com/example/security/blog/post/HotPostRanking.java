@@ -0,0 +1,179 @@
+package com.example.security.blog.post;
+
+import com.example.security.common.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Time-decayed "hot" ranking behind /api/v1/posts/popular.
+//
+//   score = (likes + commentWeight * comments) / (ageHours + 2) ^ gravity
+//
+// Like/comment events update the counters of tracked posts in place. The ranked list is re-sorted
+// off the request path every rerank-ms and published as an immutable list, so readers never block.
+// A periodic full recompute reloads the window from the posts table to repair any drift.
+//
+// Events are applied once the caller's transaction commits (a rolled-back like never counts).
+// While a recompute is reading the table they are also journaled and replayed onto its result
+// before the swap, so nothing that happens during the read is lost.
+@Component
+public class HotPostRanking {
+
+    private final PostRepository postRepository;
+    private final double gravity;
+    private final double commentWeight;
+    private final Duration window;
+    private final int size;
+
+    // posts created inside the window
+    private volatile Map<Long, Entry> tracked = new ConcurrentHashMap<>();
+    // published ranking, best first
+    private volatile List<Long> ranked = List.of();
+    // events since the running recompute started reading; null when none is running
+    private Queue<Consumer<Map<Long, Entry>>> journal;
+    // events share the read lock; starting a recompute and swapping in its result take the write lock
+    private final ReentrantReadWriteLock swap = new ReentrantReadWriteLock();
+
+    public HotPostRanking(PostRepository postRepository,
+                          @Value("${posts.hot.gravity:1.8}") double gravity,
+                          @Value("${posts.hot.comment-weight:2.0}") double commentWeight,
+                          @Value("${posts.hot.window-days:30}") int windowDays,
+                          @Value("${posts.hot.size:100}") int size) {
+        this.postRepository = postRepository;
+        this.gravity = gravity;
+        this.commentWeight = commentWeight;
+        this.window = Duration.ofDays(windowDays);
+        this.size = size;
+    }
+
+    // Best first, at most `size` ids. Empty until the first recompute has run.
+    public List<Long> top() {
+        return ranked;
+    }
+
+    // EVENTS (cheap: one map lookup + atomic add, after commit)
+
+    public void onPostCreated(Post post) {
+        Long postId = post.getId();
+        LocalDateTime createdAt = post.getCreatedAt();
+        apply(posts -> posts.put(postId, new Entry(createdAt, 0, 0)));
+    }
+
+    public void onPostDeleted(Long postId) {
+        AfterCommit.run(() -> {
+            apply(posts -> posts.remove(postId));
+            // don't wait for the next rerank to stop serving a deleted post
+            ranked = ranked.stream().filter(id -> !id.equals(postId)).toList();
+        });
+    }
+
+    public void onLike(Long postId, long delta) {
+        apply(posts -> {
+            Entry entry = posts.get(postId);
+            if (entry != null) entry.likes.addAndGet(delta);
+        });
+    }
+
+    public void onComment(Long postId, long delta) {
+        apply(posts -> {
+            Entry entry = posts.get(postId);
+            if (entry != null) entry.comments.addAndGet(delta);
+        });
+    }
+
+    private void apply(Consumer<Map<Long, Entry>> event) {
+        AfterCommit.run(() -> {
+            swap.readLock().lock();
+            try {
+                event.accept(tracked);
+                Queue<Consumer<Map<Long, Entry>>> pending = journal;
+                if (pending != null) pending.add(event);
+            } finally {
+                swap.readLock().unlock();
+            }
+        });
+    }
+
+    // REBUILDS
+
+    @Scheduled(fixedDelayString = "${posts.hot.rerank-ms:30000}")
+    public void rerank() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(window);
+        Map<Long, Entry> current = tracked;
+
+        current.entrySet().removeIf(e -> e.getValue().createdAt.isBefore(cutoff));
+        ranked = current.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<Long, Entry> e) -> score(e.getValue(), now)).reversed()
+                        .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${posts.hot.recompute-cron:0 0 * * * *}")
+    public synchronized void recompute() {
+        Queue<Consumer<Map<Long, Entry>>> pending = new ConcurrentLinkedQueue<>();
+        swap.writeLock().lock();
+        try {
+            journal = pending;
+        } finally {
+            swap.writeLock().unlock();
+        }
+
+        Map<Long, Entry> fresh = new ConcurrentHashMap<>();
+        boolean loaded = false;
+        try {
+            for (PostStats stats : postRepository.findStatsCreatedSince(LocalDateTime.now().minus(window))) {
+                fresh.put(stats.id(), new Entry(stats.createdAt(), stats.likeCount(), stats.commentCount()));
+            }
+            loaded = true;
+        } finally {
+            swap.writeLock().lock();
+            try {
+                // an event that committed just before the read may count twice; the next recompute repairs it
+                if (loaded) {
+                    pending.forEach(event -> event.accept(fresh));
+                    tracked = fresh;
+                }
+                journal = null;
+            } finally {
+                swap.writeLock().unlock();
+            }
+        }
+        rerank();
+    }
+
+    private double score(Entry entry, LocalDateTime now) {
+        double ageHours = Math.max(0, Duration.between(entry.createdAt, now).toMinutes() / 60.0);
+        double points = entry.likes.get() + commentWeight * entry.comments.get();
+        return points / Math.pow(ageHours + 2, gravity);
+    }
+
+    private static final class Entry {
+        final LocalDateTime createdAt;
+        final AtomicLong likes;
+        final AtomicLong comments;
+
+        Entry(LocalDateTime createdAt, long likes, long comments) {
+            this.createdAt = createdAt;
+            this.likes = new AtomicLong(likes);
+            this.comments = new AtomicLong(comments);
+        }
+    }
+}
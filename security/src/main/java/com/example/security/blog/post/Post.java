@@ -6,13 +6,22 @@ import com.example.security.blog.like.PostLike;
 import com.example.security.user.entity.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "posts")
+@Table(
+    name = "posts",
+    indexes = {
+        @Index(name = "idx_posts_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_posts_author_created_at", columnList = "author_id, created_at"),
+        @Index(name = "idx_posts_like_count", columnList = "like_count, id")
+    }
+)
+@DynamicUpdate // only write changed columns, so saving a post never overwrites the counters below
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,6 +47,16 @@ public class Post {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Denormalized counters. Never set these on a loaded entity:
+    // they are only changed by the atomic UPDATEs in PostRepository (and repaired by PostCounterReconciler)
+    @Column(name = "like_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private long likeCount = 0L;
+
+    @Column(name = "comment_count", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private long commentCount = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
@@ -3,9 +3,15 @@ package com.example.security.blog.post;
 import com.example.security.blog.post.dto.CreatePostRequest;
 import com.example.security.blog.post.dto.UpdatePostRequest;
 import com.example.security.blog.post.dto.PostResponse;
+import com.example.security.blog.hashtag.TrendingHashtagTracker;
+import com.example.security.blog.hashtag.TrendingWindow;
+import com.example.security.common.ConditionalGet;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
@@ -18,6 +24,8 @@ import java.util.Map;
 public class PostController {
 
     private final PostService postService;
+    private final ContentVersions contentVersions;
+    private final TrendingHashtagTracker trendingHashtagTracker;
 
     // 1. NEW ENDPOINT: Upload Image
     // Frontend calls this first, gets URL, then calls createPost
@@ -37,13 +45,17 @@ public class PostController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts() {
-        return ResponseEntity.ok(postService.getAllPosts());
+    public ResponseEntity<CursorPage<PostResponse>> getAllPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(postService.getAllPosts(cursor, size));
     }
 
+    // 304 straight from the post's version when the client's copy is still current
     @GetMapping("/{id}")
-    public ResponseEntity<PostResponse> getPostById(@PathVariable Long id) {
-        return ResponseEntity.ok(postService.getPostById(id));
+    public ResponseEntity<PostResponse> getPostById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, contentVersions.postTag(id), () -> postService.getPostById(id));
     }
 
     @PutMapping("/{id}")
@@ -62,25 +74,43 @@ public class PostController {
 
     // 2. FIX: Return List, and call correct Service method
     @GetMapping("/users/{userId}/posts")
-    public ResponseEntity<List<PostResponse>> getPostsByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(postService.getPostsByUserId(userId));
+    public ResponseEntity<CursorPage<PostResponse>> getPostsByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(postService.getPostsByUserId(userId, cursor, size));
     }
 
+    // GET /api/v1/posts/search?q=fee deadline  (full text)  or  ?tag=java  (exact hashtag)
     @GetMapping("/search")
-    public ResponseEntity<List<PostResponse>> searchPosts(@RequestParam(required = false) String tag) {
-        // Just call the service
-        return ResponseEntity.ok(postService.searchPostsByTag(tag));
+    public ResponseEntity<CursorPage<PostResponse>> searchPosts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        if (q != null && !q.isBlank()) {
+            return ResponseEntity.ok(postService.searchPosts(q, cursor, size));
+        }
+        return ResponseEntity.ok(postService.searchPostsByTag(tag, cursor, size));
     }
 
-    // GET /api/v1/posts/trending-tags
+    // GET /api/v1/posts/trending-tags?window=24h  (1h, 24h or 7d; default 7d)
     @GetMapping("/trending-tags")
-    public ResponseEntity<List<String>> getTrendingTags() {
-        return ResponseEntity.ok(postService.getTrendingTags());
+    public ResponseEntity<List<String>> getTrendingTags(@RequestParam(required = false) String window,
+                                                        WebRequest request) {
+        long hour = System.currentTimeMillis() / 3_600_000; // the ranking also moves when the hour rolls over
+        String etag = contentVersions.tag("trending", TrendingWindow.fromParam(window), trendingHashtagTracker.version(), hour);
+        return ConditionalGet.respond(request, etag, () -> postService.getTrendingTags(window));
     }
 
     // GET /api/v1/posts/popular
     @GetMapping("/popular")
-    public ResponseEntity<List<PostResponse>> getPopularPosts() {
-        return ResponseEntity.ok(postService.getPopularPosts());
+    public ResponseEntity<CursorPage<PostResponse>> getPopularPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(postService.getPopularPosts(cursor, size));
     }
 }
\ No newline at end of file
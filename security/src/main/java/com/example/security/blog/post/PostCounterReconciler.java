@@ -0,0 +1,39 @@
+package com.example.security.blog.post;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Repairs Post.likeCount / Post.commentCount from post_likes and comments.
+// Counters are maintained incrementally, this only catches drift (manual SQL, failed transactions, old rows).
+@Component
+@RequiredArgsConstructor
+public class PostCounterReconciler {
+
+    private final PostRepository postRepository;
+
+    // A full-table pass: off by default, turn it on for the first start after the columns are
+    // added (existing rows start at 0), otherwise the nightly run is enough
+    @Value("${posts.counters.reconcile-on-startup:false}")
+    private boolean reconcileOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileOnStartup() {
+        if (reconcileOnStartup) reconcile();
+    }
+
+    @Scheduled(cron = "${posts.counters.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        int likes = postRepository.reconcileLikeCounts();
+        int comments = postRepository.reconcileCommentCounts();
+        if (likes > 0 || comments > 0) {
+            System.out.println("COUNTERS RECONCILED: likeCount fixed on " + likes + " posts, commentCount fixed on " + comments + " posts");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.security.blog.post;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+// Just enough of a post to order and page it: (createdAt DESC, id DESC)
+public record PostRef(Long id, LocalDateTime createdAt) {
+
+    public static final Comparator<PostRef> NEWEST_FIRST =
+            Comparator.comparing(PostRef::createdAt).thenComparing(PostRef::id).reversed();
+
+    public static PostRef of(Post post) {
+        return new PostRef(post.getId(), post.getCreatedAt());
+    }
+
+    public static PostRef of(PostView post) {
+        return new PostRef(post.id(), post.createdAt());
+    }
+}
@@ -1,14 +1,18 @@
 package com.example.security.blog.post;
 
+import com.example.security.blog.search.PostText;
 import com.example.security.user.entity.User;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
 
@@ -16,23 +20,112 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
     // later: findByVisibility, findByAuthorRole, etc.
 
+    // KEYSET PAGINATION
+    // Every listing is ordered by (createdAt DESC, id DESC). The first page uses the plain query,
+    // later pages continue strictly after the (createdAt, id) of the last row the client saw.
+    // Callers pass PageRequest.of(0, size + 1) so the extra row tells them whether there is a next page.
+
+    // List reads return PostView projections (post + author columns in one query, see PostView.SELECT).
+
     //  all posts (students + teachers) newest first
-    List<Post> findAllByOrderByCreatedAtDesc();
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findFeedPage(Pageable pageable);
+
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a " +
+           "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findFeedPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    //  refs of posts by a list of authors (pull side of the following feed)
+    @Query("SELECT new com.example.security.blog.post.PostRef(p.id, p.createdAt) FROM Post p " +
+           "WHERE p.author.id IN :authorIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRef> findRefsByAuthorIds(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
 
-    //  posts by a list of authors (for following feed)
-    List<Post> findByAuthorInOrderByCreatedAtDesc(Collection<User> authors);
+    @Query("SELECT new com.example.security.blog.post.PostRef(p.id, p.createdAt) FROM Post p " +
+           "WHERE p.author.id IN :authorIds " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRef> findRefsByAuthorIdsAfter(@Param("authorIds") Collection<Long> authorIds,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
 
+    @Query("SELECT new com.example.security.blog.post.PostRef(p.id, p.createdAt) FROM Post p " +
+           "WHERE p.author.id = :authorId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostRef> findRecentRefsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
 
-    @Query("SELECT p FROM Post p JOIN p.hashtags h WHERE LOWER(h.name) = LOWER(:name)")
-    List<Post> findByHashtags_NameIgnoreCase(@Param("name") String name);
+    //  posts of a single author (profile page)
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a WHERE a.id = :authorId ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findByAuthorIdPage(@Param("authorId") Long authorId, Pageable pageable);
 
-    //  1. REAL WORLD TRENDING LOGIC
-    // "Count how many posts use this tag, sort descending, give me the top X"
-    @Query("SELECT h.name FROM Hashtag h JOIN h.posts p GROUP BY h.name ORDER BY COUNT(p) DESC")
-    List<String> findTrendingHashtags(Pageable pageable);
-    
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a WHERE a.id = :authorId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findByAuthorIdPageAfter(@Param("authorId") Long authorId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    //  posts carrying a hashtag (search)
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a JOIN p.hashtags h WHERE LOWER(h.name) = LOWER(:name) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findByHashtagPage(@Param("name") String name, Pageable pageable);
+
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a JOIN p.hashtags h WHERE LOWER(h.name) = LOWER(:name) " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostView> findByHashtagPageAfter(@Param("name") String name,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    //  1. TRENDING: served from memory by TrendingHashtagTracker
     //  2. REAL WORLD POPULAR LOGIC
-    // "Count likes for each post, sort descending, give me the top X"
-    @Query("SELECT p FROM Post p LEFT JOIN p.likes l GROUP BY p ORDER BY COUNT(l) DESC")
-    List<Post> findPopularPosts(Pageable pageable);
+    // "Sort by the stored like counter, give me the top X" (index scan on idx_posts_like_count)
+    @Query("SELECT p.id FROM Post p ORDER BY p.likeCount DESC, p.id DESC")
+    List<Long> findPopularPostIds(Pageable pageable);
+
+    //  posts by id, in no particular order (ranked lists, search hits, pulled timeline posts)
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a WHERE p.id IN :ids")
+    List<PostView> findViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(PostView.SELECT + "FROM Post p JOIN p.author a WHERE p.id = :id")
+    Optional<PostView> findViewById(@Param("id") Long id);
+
+    //  SEARCH INDEX REBUILD
+    // Title and content only, in id order (see PostSearchIndex)
+    @Query("SELECT new com.example.security.blog.search.PostText(p.id, p.title, p.content) FROM Post p " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<PostText> findTextsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    //  3. HOT RANKING SEED
+    // Counters of every post inside the ranking window (see HotPostRanking)
+    @Query("SELECT new com.example.security.blog.post.PostStats(p.id, p.createdAt, p.likeCount, p.commentCount) " +
+           "FROM Post p WHERE p.createdAt >= :since")
+    List<PostStats> findStatsCreatedSince(@Param("since") LocalDateTime since);
+
+    // Which of these posts still exist
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // COUNTERS
+    // Single-statement increments, so concurrent likes/comments never lose updates
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.id = :postId")
+    int adjustLikeCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int adjustCommentCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    // Repair drift from the source tables; returns the number of posts fixed
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = (SELECT COUNT(l) FROM PostLike l WHERE l.post = p) " +
+           "WHERE p.likeCount <> (SELECT COUNT(l2) FROM PostLike l2 WHERE l2.post = p)")
+    int reconcileLikeCounts();
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post = p) " +
+           "WHERE p.commentCount <> (SELECT COUNT(c2) FROM Comment c2 WHERE c2.post = p)")
+    int reconcileCommentCounts();
 }
@@ -0,0 +1,83 @@
+package com.example.security.blog.post;
+
+import com.example.security.blog.like.LikeBuffer;
+import com.example.security.blog.like.PostLikers;
+import com.example.security.blog.post.dto.PostResponse;
+import com.example.security.user.AccountType;
+import com.example.security.user.entity.User;
+import com.example.security.user.follow.FollowRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Turns a page of PostViews into PostResponses for one viewer.
+// Post and author columns arrive in the view itself, so the only lookups are per page, never per post:
+//   viewer's likes (from PostLikers, in memory for recent posts), viewer's follows.
+// Likes still sitting in LikeBuffer are overlaid on both the count and the viewer's flag.
+@Component
+@RequiredArgsConstructor
+public class PostResponseAssembler {
+
+    private final PostLikers postLikers;
+    private final FollowRepository followRepository;
+    private final LikeBuffer likeBuffer;
+
+    // Write paths (create/update) that hold the entity
+    public PostResponse toResponse(Post post, User viewer) {
+        return toResponse(PostView.of(post), viewer);
+    }
+
+    public PostResponse toResponse(PostView post, User viewer) {
+        return toResponses(List.of(post), viewer).get(0);
+    }
+
+    // viewer may be null (public/anonymous read)
+    public List<PostResponse> toResponses(List<PostView> posts, User viewer) {
+        if (posts.isEmpty()) return List.of();
+
+        Set<Long> likedPostIds = (viewer == null) ? Set.of() : postLikers.likedAmong(viewer.getId(), posts);
+        Set<Long> followedAuthorIds = findFollowedAuthors(viewer, posts);
+
+        return posts.stream()
+                .map(post -> PostResponse.builder()
+                        .id(post.id())
+                        .title(post.title())
+                        .content(post.content())
+                        .imageUrl(post.imageUrl())
+                        .category(post.category())
+                        .authorName((post.authorLastname() + " " + post.authorFirstname()).trim())
+                        .authorImageUrl(post.authorImageUrl())
+                        .authorRole(post.authorAccountType() != null ? post.authorAccountType().name() : "STUDENT")
+                        .authorVerified(post.authorVerified())
+                        .likeCount(Math.max(0, post.likeCount() + likeBuffer.pendingDelta(post.id())))
+                        .likedByCurrentUser(isLiked(post.id(), viewer, likedPostIds))
+                        .commentCount(post.commentCount())
+                        .authorId(post.authorId())
+                        .followingAuthor(followedAuthorIds.contains(post.authorId()))
+                        .createdAt(post.createdAt())
+                        .updatedAt(post.updatedAt())
+                        .build())
+                .toList();
+    }
+
+    private boolean isLiked(Long postId, User viewer, Set<Long> likedPostIds) {
+        if (viewer == null) return false;
+        return likeBuffer.pendingState(postId, viewer.getId()).orElseGet(() -> likedPostIds.contains(postId));
+    }
+
+    // Only students follow teachers, so anything else skips the query entirely
+    private Set<Long> findFollowedAuthors(User viewer, List<PostView> posts) {
+        if (viewer == null || viewer.getAccountType() != AccountType.STUDENT) return Set.of();
+
+        Set<Long> teacherIds = new HashSet<>();
+        for (PostView post : posts) {
+            if (post.authorAccountType() == AccountType.TEACHER) teacherIds.add(post.authorId());
+        }
+        if (teacherIds.isEmpty()) return Set.of();
+
+        return new HashSet<>(followRepository.findFollowedIds(viewer.getId(), teacherIds));
+    }
+}
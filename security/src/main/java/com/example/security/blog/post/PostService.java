@@ -1,28 +1,36 @@
 package com.example.security.blog.post;
 
+import com.example.security.blog.comment.CommentPageCache;
 import com.example.security.blog.comment.CommentRepository;
+import com.example.security.blog.feed.TimelineService;
 import com.example.security.blog.hashtag.Hashtag;
-import com.example.security.blog.hashtag.HashtagRepository;
-import com.example.security.blog.like.PostLike;
+import com.example.security.blog.hashtag.HashtagResolver;
+import com.example.security.blog.hashtag.TrendingHashtagTracker;
+import com.example.security.blog.hashtag.TrendingWindow;
+import com.example.security.blog.like.LikeBuffer;
+import com.example.security.blog.like.LikeWriter;
+import com.example.security.blog.like.PostLikers;
 import com.example.security.blog.like.PostLikeRepository;
 import com.example.security.blog.post.dto.CreatePostRequest;
 import com.example.security.blog.post.dto.UpdatePostRequest;
-import com.example.security.notification.NotificationService;
-import com.example.security.notification.NotificationType;
+import com.example.security.blog.search.PostSearchIndex;
+import com.example.security.common.AfterCommit;
+import com.example.security.common.ContentVersions;
 import com.example.security.blog.post.dto.PostResponse;
-import com.example.security.user.AccountType;
+import com.example.security.common.CursorPage;
+import com.example.security.common.OffsetCursor;
+import com.example.security.common.PageCursor;
+import com.example.security.user.CurrentUserProvider;
 import com.example.security.user.entity.User;
-import com.example.security.user.follow.FollowRepository;
-import com.example.security.user.repository.UserRepository;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.File;
 import java.io.IOException;
@@ -32,39 +40,36 @@ import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final PostLikeRepository postLikeRepository;
     private final CommentRepository commentRepository;
-    private final FollowRepository followRepository; 
-    private final HashtagRepository hashtagRepository;
-    private final NotificationService notificationService;
-
-    // Strict User Fetch (For actions like Create/Update/Delete)
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
-    // Optional User Fetch (For viewing posts publicly)
-    private User getOptionalCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
-            return null; 
-        }
-        return userRepository.findByEmail(auth.getName()).orElse(null);
-    }
+    private final HashtagResolver hashtagResolver;
+    private final TrendingHashtagTracker trendingHashtagTracker;
+    private final PostResponseAssembler postResponseAssembler;
+    private final TimelineService timelineService;
+    private final AuthorRecentPostsCache authorRecentPostsCache;
+    private final HotPostRanking hotPostRanking;
+    private final PostSearchIndex postSearchIndex;
+    private final ContentVersions contentVersions;
+    private final PostViewCache postViewCache;
+    private final LikeBuffer likeBuffer;
+    private final LikeWriter likeWriter;
+    private final PostLikers postLikers;
+    private final CommentPageCache commentPageCache;
+
+    private static final int TRENDING_LIMIT = 10;
+    // All-time fallback for popular posts, used only until the hot ranking has data
+    private static final int POPULAR_LIMIT = 100;
 
     public String uploadPostImage(MultipartFile file) {
         if (file.isEmpty()) throw new RuntimeException("File is empty");
@@ -85,8 +90,9 @@ public class PostService {
         }
     }
 
+    @Transactional
     public PostResponse createPost(CreatePostRequest request) {
-        User author = getCurrentUser(); // Strict check
+        User author = currentUserProvider.getEntity(); // Strict check; full row for the response's author name
 
         Post post = Post.builder()
                 .title(request.getTitle())
@@ -98,41 +104,61 @@ public class PostService {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        post.setHashtags(parseHashtags(request.getContent()));
+        Set<String> tags = HashtagResolver.extract(request.getContent());
+        post.setHashtags(hashtagResolver.resolve(tags));
 
         Post saved = postRepository.save(post);
+        authorRecentPostsCache.invalidate(author.getId());
+        hotPostRanking.onPostCreated(saved);
+        AfterCommit.run(() -> trendingHashtagTracker.record(tags, saved.getCreatedAt()));
+        AfterCommit.run(() -> postSearchIndex.index(saved)); // a rolled-back post never becomes searchable
+        contentVersions.postChanged(saved.getId());
+        timelineService.onPostCreated(saved); // push into followers' timelines (or leave it to be pulled)
         //  Pass author as currentUser (since they just created it)
-        return mapToResponse(saved, author);
+        return postResponseAssembler.toResponse(saved, author);
     }
 
-    public List<PostResponse> getAllPosts() {
+    public CursorPage<PostResponse> getAllPosts(String cursor, Integer size) {
         //  Optimization: Fetch user ONCE
-        User currentUser = getOptionalCurrentUser(); 
-        
-        return postRepository.findAllByOrderByCreatedAtDesc()
-                .stream()
-                .map(post -> mapToResponse(post, currentUser)) //  Pass user
-                .toList();
+        User currentUser = currentUserProvider.getOrNull(); 
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<PostView> posts = (after == null)
+                ? postRepository.findFeedPage(fetch)
+                : postRepository.findFeedPageAfter(after.createdAt(), after.id(), fetch);
+        return toPage(posts, limit, currentUser);
     }
 
-    public List<PostResponse> getPostsByUserId(Long userId) {
-        User currentUser = getOptionalCurrentUser(); // Fetch once
-
-        return postRepository.findAll().stream()
-                .filter(post -> post.getAuthor().getId().equals(userId))
-                .map(post -> mapToResponse(post, currentUser)) //  Pass user
-                .collect(Collectors.toList());
+    // Profile pages: served from AuthorRecentPostsCache while the page falls inside it,
+    // otherwise from the (author_id, created_at) index. Either way O(page size).
+    public CursorPage<PostResponse> getPostsByUserId(Long userId, String cursor, Integer size) {
+        User currentUser = currentUserProvider.getOrNull(); // Fetch once
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+
+        List<PostView> posts = authorRecentPostsCache.page(userId, after, limit + 1)
+                .map(refs -> loadInOrder(refs.stream().map(PostRef::id).toList()))
+                .orElseGet(() -> {
+                    PageRequest fetch = PageRequest.of(0, limit + 1);
+                    return (after == null)
+                            ? postRepository.findByAuthorIdPage(userId, fetch)
+                            : postRepository.findByAuthorIdPageAfter(userId, after.createdAt(), after.id(), fetch);
+                });
+        return toPage(posts, limit, currentUser);
     }
 
     public PostResponse getPostById(Long id) {
-        User currentUser = getOptionalCurrentUser(); // Fetch user
-        Post post = postRepository.findById(id)
+        User currentUser = currentUserProvider.getOrNull(); // Fetch user
+        PostView post = postViewCache.get(id) // shared part cached, viewer flags added per request
                 .orElseThrow(() -> new RuntimeException("Post not found"));
-        return mapToResponse(post, currentUser); //  Pass user
+        return postResponseAssembler.toResponse(post, currentUser); //  Pass user
     }
 
+    @Transactional
     public PostResponse updatePost(Long id, UpdatePostRequest request) {
-        User currentUser = getCurrentUser(); // Strict check
+        User currentUser = currentUserProvider.get(); // Strict check
 
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
@@ -147,110 +173,143 @@ public class PostService {
         post.setImageUrl(request.getImageUrl());
         post.setCategory(request.getCategory());
         post.setUpdatedAt(LocalDateTime.now());
-        post.setHashtags(parseHashtags(request.getContent()));
+        Set<String> previousTags = tagNames(post.getHashtags());
+        Set<String> tags = HashtagResolver.extract(request.getContent());
+        post.setHashtags(hashtagResolver.resolve(tags));
 
         Post updated = postRepository.save(post);
-        return mapToResponse(updated, currentUser); //  Pass user
+        authorRecentPostsCache.invalidate(post.getAuthor().getId());
+        // Every use is counted at the post's createdAt (as delete and the startup rebuild do),
+        // so the edit moves only the tags it added or dropped, in the same hour bucket
+        Set<String> addedTags = new HashSet<>(tags);
+        addedTags.removeAll(previousTags);
+        Set<String> droppedTags = new HashSet<>(previousTags);
+        droppedTags.removeAll(tags);
+        LocalDateTime usedAt = updated.getCreatedAt();
+        AfterCommit.run(() -> {
+            trendingHashtagTracker.record(addedTags, usedAt);
+            trendingHashtagTracker.remove(droppedTags, usedAt);
+        });
+        AfterCommit.run(() -> postSearchIndex.index(updated));
+        contentVersions.postChanged(id);
+        postViewCache.invalidate(id);
+        return postResponseAssembler.toResponse(updated, currentUser); //  Pass user
     }
 
+    // Counters live on the post row itself, so they disappear with it
     @Transactional
     public void deletePost(Long postId) {
-        if (!postRepository.existsById(postId)) throw new RuntimeException("Post not found");
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new RuntimeException("Post not found"));
+        likeBuffer.discard(postId);
+        Set<String> tags = tagNames(post.getHashtags());
+        AfterCommit.run(() -> trendingHashtagTracker.remove(tags, post.getCreatedAt()));
+        timelineService.onPostDeleted(postId);
         postLikeRepository.deleteByPostId(postId);
+        postLikers.evict(postId);
         commentRepository.deleteByPostId(postId);
+        commentPageCache.invalidate(postId);
         postRepository.deleteById(postId);
+        authorRecentPostsCache.invalidate(post.getAuthor().getId());
+        hotPostRanking.onPostDeleted(postId);
+        AfterCommit.run(() -> postSearchIndex.remove(postId));
+        contentVersions.postChanged(postId);
+        postViewCache.invalidate(postId);
     }
 
-    private Set<Hashtag> parseHashtags(String content) {
-        Set<Hashtag> tags = new HashSet<>();
-        if (content == null) return tags;
-        java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("#(\\w+)").matcher(content);
-        while (matcher.find()) {
-            String tagName = matcher.group(1).toLowerCase();
-            Hashtag hashtag = hashtagRepository.findByName(tagName)
-                    .orElseGet(() -> hashtagRepository.save(Hashtag.builder().name(tagName).build()));
-            tags.add(hashtag);
-        }
-        return tags;
+    private Set<String> tagNames(Set<Hashtag> hashtags) {
+        Set<String> names = new HashSet<>();
+        for (Hashtag hashtag : hashtags) names.add(hashtag.getName());
+        return names;
     }
 
-    public List<PostResponse> searchPostsByTag(String tag) {
-        if (tag == null || tag.isEmpty()) return List.of();
+    public CursorPage<PostResponse> searchPostsByTag(String tag, String cursor, Integer size) {
+        if (tag == null || tag.isEmpty()) return CursorPage.of(List.of(), null);
         
-        User currentUser = getOptionalCurrentUser(); // Fetch once
+        User currentUser = currentUserProvider.getOrNull(); // Fetch once
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<PostView> posts = (after == null)
+                ? postRepository.findByHashtagPage(tag, fetch)
+                : postRepository.findByHashtagPageAfter(tag, after.createdAt(), after.id(), fetch);
+        return toPage(posts, limit, currentUser);
+    }
+
+    // Free-text search over title + content, BM25-ranked by PostSearchIndex, paged by offset.
+    // Hits whose post is already gone are dropped by loadInOrder.
+    public CursorPage<PostResponse> searchPosts(String text, String cursor, Integer size) {
+        if (text == null || text.isBlank()) return CursorPage.of(List.of(), null);
 
-        return postRepository.findByHashtags_NameIgnoreCase(tag).stream()
-                .map(post -> mapToResponse(post, currentUser)) // Pass user
-                .toList();
+        User currentUser = currentUserProvider.getOrNull(); // Fetch once
+        int offset = OffsetCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+        if (offset >= PostSearchIndex.MAX_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        List<Long> hits = postSearchIndex.search(text, offset, limit + 1);
+        boolean hasMore = hits.size() > limit && offset + limit < PostSearchIndex.MAX_RESULTS;
+        List<PostView> page = loadInOrder(hasMore ? hits.subList(0, limit) : hits);
+        String next = hasMore ? new OffsetCursor(offset + limit).encode() : null;
+
+        return CursorPage.of(postResponseAssembler.toResponses(page, currentUser), next);
     }
 
-    public List<String> getTrendingTags() {
-        return postRepository.findTrendingHashtags(PageRequest.of(0, 10));
+    // Served from memory by TrendingHashtagTracker, no query
+    public List<String> getTrendingTags(String window) {
+        return trendingHashtagTracker.top(TrendingWindow.fromParam(window), TRENDING_LIMIT);
     }
 
-    public List<PostResponse> getPopularPosts() {
-        User currentUser = getOptionalCurrentUser(); //  Fetch once
-        return postRepository.findPopularPosts(PageRequest.of(0, 20)).stream()
-                .map(post -> mapToResponse(post, currentUser)) //  Pass user
-                .toList();
+    // Popular = the precomputed hot ranking (likes + comments, decayed by age), paged by offset.
+    // Falls back to all-time likes only while the ranking is empty (startup, or no recent posts).
+    public CursorPage<PostResponse> getPopularPosts(String cursor, Integer size) {
+        User currentUser = currentUserProvider.getOrNull(); //  Fetch once
+        int offset = OffsetCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
+
+        List<Long> ranked = hotPostRanking.top();
+        if (ranked.isEmpty()) {
+            ranked = postRepository.findPopularPostIds(PageRequest.of(0, POPULAR_LIMIT));
+        }
+        if (offset >= ranked.size()) return CursorPage.of(List.of(), null);
+
+        int end = Math.min(offset + limit, ranked.size());
+        List<PostView> page = loadInOrder(ranked.subList(offset, end));
+        String next = end < ranked.size() ? new OffsetCursor(end).encode() : null;
+
+        return CursorPage.of(postResponseAssembler.toResponses(page, currentUser), next);
     }
 
     @Transactional
     public void toggleLike(Long postId) {
-        User currentUser = getCurrentUser(); // Strict check (must be logged in)
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-
-        Optional<PostLike> existingLike = postLikeRepository.findByPostAndUser(post, currentUser);
-
-        if (existingLike.isPresent()) {
-            postLikeRepository.delete(existingLike.get()); // Unlike
-        } else {
-            postLikeRepository.save(PostLike.builder().post(post).user(currentUser).build()); // Like
-            
-            // TRIGGER NOTIFICATION
-            notificationService.createNotification(
-                post.getAuthor(),       // Recipient (Post Owner)
-                currentUser,            // Actor (Who liked)
-                NotificationType.LIKE, 
-                post.getId()            // Related Post ID
-            );
+        User currentUser = currentUserProvider.get(); // Strict check (must be logged in)
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.toggle(postId, currentUser, true); // notification goes out when the batch is written
+            return;
         }
+        postViewCache.get(postId).orElseThrow(() -> new RuntimeException("Post not found"));
+
+        // Unlike if there was a like, else like (with a notification): no read first, and the
+        // row counts say which one happened
+        long delta = likeWriter.unlike(postId, currentUser.getId()) ? -1
+                : likeWriter.like(postId, currentUser.getId(), true) ? 1 : 0;
+        if (delta == 0) return;
+        hotPostRanking.onLike(postId, delta);
+        contentVersions.likeChanged(postId, currentUser.getEmail());
     }
-    // The Optimized Mapper (Requires User to be passed in)
-    private PostResponse mapToResponse(Post post, User currentUser) {
-        User author = post.getAuthor();
-        String fullName = (author.getLastname() + " " + author.getFirstname()).trim();
-        
-        // These still cause queries (resolved by Batch Fetching setting)
-        long likeCount = postLikeRepository.countByPost(post);
-        long commentCount = commentRepository.countByPost(post);
 
-        boolean likedByCurrentUser = (currentUser != null) && postLikeRepository.existsByPostAndUser(post, currentUser);
-        
-        boolean followingAuthor = false;
-        if (currentUser != null && currentUser.getAccountType() == AccountType.STUDENT 
-                && author.getAccountType() == AccountType.TEACHER) {
-            followingAuthor = followRepository.existsByFollowerAndFollowing(currentUser, author);
-        }
+    // From PostViewCache (misses in one IN query), kept in the order of the ids (deleted posts are skipped)
+    private List<PostView> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, PostView> byId = postViewCache.getAll(ids);
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
 
-        return PostResponse.builder()
-                .id(post.getId())
-                .title(post.getTitle())
-                .content(post.getContent())
-                .imageUrl(post.getImageUrl())
-                .category(post.getCategory())
-                .authorName(fullName)
-                .authorImageUrl(author.getProfileImageUrl())
-                .authorRole(author.getAccountType() != null ? author.getAccountType().name() : "STUDENT")
-                .authorVerified(author.isVerified())
-                .likeCount(likeCount)
-                .likedByCurrentUser(likedByCurrentUser)
-                .commentCount(commentCount)
-                .authorId(author.getId())
-                .followingAuthor(followingAuthor)
-                .createdAt(post.getCreatedAt())
-                .updatedAt(post.getUpdatedAt())
-                .build();
+    private CursorPage<PostResponse> toPage(List<PostView> posts, int limit, User currentUser) {
+        return CursorPage.slice(posts, limit,
+                post -> new PageCursor(post.createdAt(), post.id()).encode(),
+                page -> postResponseAssembler.toResponses(page, currentUser));
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.security.blog.post;
+
+import java.time.LocalDateTime;
+
+// Counters of one post, read without loading the entity (hot ranking seed)
+public record PostStats(Long id, LocalDateTime createdAt, long likeCount, long commentCount) {
+}
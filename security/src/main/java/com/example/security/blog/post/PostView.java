@@ -0,0 +1,27 @@
+package com.example.security.blog.post;
+
+import com.example.security.user.AccountType;
+
+import java.time.LocalDateTime;
+
+// Read-only row for post lists: exactly the columns PostResponse needs, post + author in one query.
+// Not a managed entity, so no dirty-checking snapshot and no lazy author proxy.
+public record PostView(Long id, String title, String content, String imageUrl, String category,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, long likeCount, long commentCount,
+                       Long authorId, String authorFirstname, String authorLastname, String authorImageUrl,
+                       AccountType authorAccountType, boolean authorVerified) {
+
+    // Select clause for queries aliasing the post as "p" and its author as "a"
+    public static final String SELECT = "SELECT new com.example.security.blog.post.PostView(" +
+            "p.id, p.title, p.content, p.imageUrl, p.category, p.createdAt, p.updatedAt, p.likeCount, p.commentCount, " +
+            "a.id, a.firstname, a.lastname, a.profileImageUrl, a.accountType, a.verified) ";
+
+    // For the write paths, which already hold the entity
+    public static PostView of(Post post) {
+        var author = post.getAuthor();
+        return new PostView(post.getId(), post.getTitle(), post.getContent(), post.getImageUrl(), post.getCategory(),
+                post.getCreatedAt(), post.getUpdatedAt(), post.getLikeCount(), post.getCommentCount(),
+                author.getId(), author.getFirstname(), author.getLastname(), author.getProfileImageUrl(),
+                author.getAccountType(), author.isVerified());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.security.blog.post;
+
+import com.example.security.common.AfterCommit;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The viewer-independent part of a post response (post + author columns, counters), by post id.
+// PostResponseAssembler overlays the viewer's flags (liked / following) per request.
+//
+// Bounded by size and TTL. Entries are dropped after commit by updatePost, deletePost, likes and
+// comments, and all at once when a profile changes (author name/avatar/verified are part of it).
+@Component
+public class PostViewCache {
+
+    private final LoadingCache<Long, Optional<PostView>> cache;
+
+    public PostViewCache(PostRepository postRepository,
+                         @Value("${posts.view-cache.max-posts:5000}") long maxPosts,
+                         @Value("${posts.view-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Optional<PostView> load(Long id) {
+                        return postRepository.findViewById(id);
+                    }
+
+                    // a page of misses is one IN query, not one query per post
+                    @Override
+                    public Map<Long, Optional<PostView>> loadAll(Set<? extends Long> ids) {
+                        Map<Long, PostView> found = postRepository.findViewsByIds(List.copyOf(ids)).stream()
+                                .collect(Collectors.toMap(PostView::id, Function.identity()));
+                        Map<Long, Optional<PostView>> loaded = new LinkedHashMap<>();
+                        ids.forEach(id -> loaded.put(id, Optional.ofNullable(found.get(id))));
+                        return loaded;
+                    }
+                });
+    }
+
+    public Optional<PostView> get(Long postId) {
+        return cache.get(postId);
+    }
+
+    // Present posts only; deleted ids are left out
+    public Map<Long, PostView> getAll(Collection<Long> postIds) {
+        Map<Long, PostView> views = new LinkedHashMap<>();
+        cache.getAll(postIds).forEach((id, view) -> view.ifPresent(v -> views.put(id, v)));
+        return views;
+    }
+
+    public void invalidate(Long postId) {
+        AfterCommit.run(() -> cache.invalidate(postId));
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(cache::invalidateAll);
+    }
+
+    public Map<String, Long> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("hits", stats.hitCount());
+        snapshot.put("misses", stats.missCount());
+        snapshot.put("evictions", stats.evictionCount());
+        snapshot.put("loads", stats.loadCount());
+        snapshot.put("size", cache.estimatedSize());
+        return snapshot;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.security.blog.search;
+
+import com.example.security.blog.post.Post;
+import com.example.security.blog.post.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Full-text index over post titles and content behind /api/v1/posts/search?q=...
+//
+// A Lucene index in a local directory (posts.search.index-dir), ranked with BM25 (Lucene's default).
+// Posts are re-indexed on create/update and removed on delete, once the post's transaction has
+// committed (the startup check below only compares counts, so it can't repair a rolled-back write); the searcher is refreshed after
+// every write and the index is committed to disk every commit-ms, so a restart opens the existing
+// index instead of rebuilding it. On startup the index is only rebuilt if its document count does
+// not match the posts table (first run, or writes lost since the last commit).
+@Component
+public class PostSearchIndex {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String CONTENT = "content";
+    private static final float TITLE_BOOST = 2.0f;
+    private static final float PHRASE_BOOST = 3.0f;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int REBUILD_BATCH = 500;
+    // Search results never go deeper than this; PostService rejects cursors past it
+    public static final int MAX_RESULTS = 1000;
+
+    private final PostRepository postRepository;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public PostSearchIndex(PostRepository postRepository,
+                           @Value("${posts.search.index-dir:data/post-index}") String indexDir) {
+        this.postRepository = postRepository;
+        try {
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            this.writer = new IndexWriter(FSDirectory.open(Path.of(indexDir)), config);
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open post search index at " + indexDir, e);
+        }
+    }
+
+    // SEARCH
+
+    // Ids of the best matching posts, best first, skipping `offset` hits; never past MAX_RESULTS
+    public List<Long> search(String text, int offset, int count) {
+        Query query = buildQuery(text);
+        if (query == null || offset >= MAX_RESULTS) return List.of();
+        int depth = (int) Math.min((long) offset + count, MAX_RESULTS);
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] hits = searcher.search(query, depth).scoreDocs;
+                List<Long> ids = new ArrayList<>();
+                for (int i = offset; i < hits.length; i++) {
+                    ids.add(Long.parseLong(searcher.storedFields().document(hits[i].doc).get(ID)));
+                }
+                return ids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Search failed", e);
+        }
+    }
+
+    // Any term may match (title counts double); all terms next to each other ranks highest
+    private Query buildQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) return null;
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            query.add(new BoostQuery(new TermQuery(new Term(TITLE, term)), TITLE_BOOST), BooleanClause.Occur.SHOULD);
+            query.add(new TermQuery(new Term(CONTENT, term)), BooleanClause.Occur.SHOULD);
+        }
+        if (terms.size() > 1) {
+            PhraseQuery.Builder phrase = new PhraseQuery.Builder().setSlop(2);
+            terms.forEach(term -> phrase.add(new Term(CONTENT, term)));
+            query.add(new BoostQuery(phrase.build(), PHRASE_BOOST), BooleanClause.Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) return terms;
+        try (TokenStream stream = analyzer.tokenStream(CONTENT, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse search query", e);
+        }
+        return terms;
+    }
+
+    // WRITES (a failed write only affects search, never the post itself)
+
+    public void index(Post post) {
+        try {
+            writer.updateDocument(new Term(ID, post.getId().toString()),
+                    toDocument(post.getId(), post.getTitle(), post.getContent()));
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            System.out.println("SEARCH INDEX WRITE FAILED for post " + post.getId() + ": " + e.getMessage());
+        }
+    }
+
+    public void remove(Long postId) {
+        try {
+            writer.deleteDocuments(new Term(ID, postId.toString()));
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            System.out.println("SEARCH INDEX DELETE FAILED for post " + postId + ": " + e.getMessage());
+        }
+    }
+
+    private static Document toDocument(Long id, String title, String content) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, id.toString(), Field.Store.YES));
+        doc.add(new TextField(TITLE, title == null ? "" : title, Field.Store.NO));
+        doc.add(new TextField(CONTENT, content == null ? "" : content, Field.Store.NO));
+        return doc;
+    }
+
+    // MAINTENANCE
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfOutOfSync() throws IOException {
+        long posts = postRepository.count();
+        if (writer.getDocStats().numDocs == posts) return;
+
+        writer.deleteAll();
+        long indexed = 0;
+        Long afterId = 0L;
+        List<PostText> batch;
+        do {
+            batch = postRepository.findTextsAfter(afterId, PageRequest.of(0, REBUILD_BATCH));
+            for (PostText text : batch) {
+                writer.addDocument(toDocument(text.id(), text.title(), text.content()));
+                afterId = text.id();
+            }
+            indexed += batch.size();
+        } while (batch.size() == REBUILD_BATCH);
+
+        writer.commit();
+        searcherManager.maybeRefresh();
+        System.out.println("SEARCH INDEX REBUILT with " + indexed + " posts");
+    }
+
+    @Scheduled(fixedDelayString = "${posts.search.commit-ms:5000}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) writer.commit();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close(); // commits pending changes
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.security.blog.search;
+
+// The searchable part of a post, read in bulk when the index is rebuilt
+public record PostText(Long id, String title, String content) {
+}
@@ -0,0 +1,136 @@
+package com.example.security.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cheap change counters behind the ETags of the read endpoints (see ConditionalGet).
+//
+// Every write bumps the counters it affects to the next value of one clock, after its transaction
+// commits (see AfterCommit). An ETag is built from the counters a response depends on plus the viewer, so it changes
+// whenever the response could. The boot time is part of every tag because the counters live in memory.
+//
+// The per post / viewer / recipient counters are bounded (etags.versions.max-entries each, least
+// recently used evicted first). A key with no entry reads as the highest version evicted so far, which
+// is never lower than what that key had, so an evicted key can't hand out a tag it had before a write.
+@Component
+public class ContentVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong clock = new AtomicLong();
+
+    // any post created / edited / deleted, or any like/comment count changed
+    private volatile long posts;
+    // any name / avatar / verification change (shown next to posts and comments)
+    private volatile long profiles;
+    private final Versions<Long> postVersions;
+    private final Versions<Long> commentVersions;
+    // per viewer (username): own likes and follows, i.e. likedByCurrentUser / followingAuthor
+    private final Versions<String> viewerVersions;
+    // per recipient id
+    private final Versions<Long> notificationVersions;
+
+    public ContentVersions(@Value("${etags.versions.max-entries:100000}") long maxEntries) {
+        this.postVersions = new Versions<>(maxEntries);
+        this.commentVersions = new Versions<>(maxEntries);
+        this.viewerVersions = new Versions<>(maxEntries);
+        this.notificationVersions = new Versions<>(maxEntries);
+    }
+
+    // WRITES
+
+    public void postChanged(Long postId) {
+        AfterCommit.run(() -> {
+            long now = clock.incrementAndGet();
+            posts = now;
+            postVersions.put(postId, now);
+        });
+    }
+
+    public void likeChanged(Long postId, String viewer) {
+        postChanged(postId);
+        viewerChanged(viewer);
+    }
+
+    public void commentsChanged(Long postId) {
+        postChanged(postId); // commentCount
+        AfterCommit.run(() -> commentVersions.put(postId, clock.incrementAndGet()));
+    }
+
+    public void viewerChanged(String viewer) {
+        AfterCommit.run(() -> viewerVersions.put(viewer, clock.incrementAndGet()));
+    }
+
+    public void profileChanged() {
+        AfterCommit.run(() -> profiles = clock.incrementAndGet());
+    }
+
+    public void notificationsChanged(Long recipient) {
+        AfterCommit.run(() -> notificationVersions.put(recipient, clock.incrementAndGet()));
+    }
+
+    // ETAGS (for the current viewer)
+
+    public String allPostsTag() {
+        return tag("feed", posts, profiles, viewerPart());
+    }
+
+    public String postTag(Long postId) {
+        return tag("post", postId, postVersions.get(postId), profiles, viewerPart());
+    }
+
+    public String commentsTag(Long postId, Object order, String cursor, int size) {
+        return tag("comments", postId, commentVersions.get(postId), profiles, order, cursor, size);
+    }
+
+    public String notificationsTag(Long recipient, String cursor, int size) {
+        return tag("notifications", recipient, notificationVersions.get(recipient), profiles, cursor, size);
+    }
+
+    // Versioned data kept elsewhere (e.g. the trending tracker)
+    public String tag(Object... parts) {
+        StringBuilder tag = new StringBuilder("\"").append(Long.toString(epoch, 36));
+        for (Object part : parts) tag.append('-').append(part);
+        return tag.append('"').toString();
+    }
+
+    private String viewerPart() {
+        String viewer = viewer();
+        return viewer + "-" + viewerVersions.get(viewer);
+    }
+
+    private static String viewer() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return (auth == null || !auth.isAuthenticated()) ? "anonymousUser" : auth.getName();
+    }
+
+    // Bounded key -> version map; a missing key reads as the highest version evicted so far
+    private static final class Versions<K> {
+        private final AtomicLong evictedUpTo = new AtomicLong();
+        private final Cache<K, Long> versions;
+
+        Versions(long maxEntries) {
+            this.versions = Caffeine.newBuilder()
+                    .maximumSize(maxEntries)
+                    .evictionListener((K key, Long version, RemovalCause cause) -> {
+                        if (version != null) evictedUpTo.accumulateAndGet(version, Math::max);
+                    })
+                    .build();
+        }
+
+        void put(K key, long version) {
+            versions.put(key, version);
+        }
+
+        long get(K key) {
+            Long version = versions.getIfPresent(key);
+            return (version != null) ? version : evictedUpTo.get();
+        }
+    }
+}
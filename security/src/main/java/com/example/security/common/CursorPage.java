@@ -0,0 +1,44 @@
+package com.example.security.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing.
+// nextCursor is opaque to clients: send it back as ?cursor=... to get the next page (null = last page).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 50;
+
+    private List<T> items;
+    private String nextCursor;
+    private int size;
+
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor) {
+        return new CursorPage<>(items, nextCursor, items.size());
+    }
+
+    // Clamp whatever the client asked for into [1, MAX_SIZE]
+    public static int clampSize(Integer requested) {
+        if (requested == null || requested <= 0) return DEFAULT_SIZE;
+        return Math.min(requested, MAX_SIZE);
+    }
+
+    // Repositories are asked for size + 1 rows; the extra row only tells us whether another page exists.
+    public static <E, T> CursorPage<T> slice(List<E> fetched,
+                                             int size,
+                                             Function<E, String> cursorOf,
+                                             Function<List<E>, List<T>> mapper) {
+        boolean hasMore = fetched.size() > size;
+        List<E> page = hasMore ? fetched.subList(0, size) : fetched;
+        String next = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return of(mapper.apply(page), next);
+    }
+}
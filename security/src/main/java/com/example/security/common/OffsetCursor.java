@@ -0,0 +1,30 @@
+package com.example.security.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position inside a small, bounded ranking (e.g. popular posts) where keyset paging doesn't apply.
+public record OffsetCursor(int offset) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("o" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Missing cursor = start of the ranking
+    public static int decode(String token) {
+        if (token == null || token.isBlank()) return 0;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("o")) throw new IllegalArgumentException();
+            int offset = Integer.parseInt(raw.substring(1));
+            if (offset < 0) throw new IllegalArgumentException();
+            return offset;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.security.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Collections;
+
+// The few statements that differ between the databases we ship drivers for (MySQL and PostgreSQL).
+// The product is read from the connection metadata once, on first use.
+@Component
+@RequiredArgsConstructor
+public class SqlDialect {
+
+    private final DataSource dataSource;
+    private volatile Boolean mysql;
+
+    public boolean isMySql() {
+        if (mysql == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                mysql = product.toLowerCase().contains("mysql") || product.toLowerCase().contains("mariadb");
+            } catch (MetaDataAccessException e) {
+                throw new RuntimeException("Could not detect database type", e);
+            }
+        }
+        return mysql;
+    }
+
+    // INSERT that silently skips rows clashing with the unique key on conflictColumns,
+    // e.g. insertIgnore("hashtags", "name", "name") -> one "?" per column
+    public String insertIgnore(String table, String columns, String conflictColumns) {
+        String placeholders = String.join(", ", Collections.nCopies(columns.split(",").length, "?"));
+        return isMySql()
+                ? "INSERT IGNORE INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")"
+                : "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ") ON CONFLICT (" + conflictColumns + ") DO NOTHING";
+    }
+}
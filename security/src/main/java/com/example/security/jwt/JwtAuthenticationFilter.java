@@ -2,6 +2,7 @@ package com.example.security.jwt;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,6 +10,11 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.security.user.AccountType;
+import com.example.security.user.Role;
+import com.example.security.user.entity.User;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,6 +30,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter{
 
     private final UserDetailsService userDetailsService;
 
+    private final UserTokenVersions userTokenVersions;
+
+    // true: build the principal from the token claims (no _user SELECT per request);
+    // false: load the user by email on every request
+    @Value("${jwt.claims-auth.enabled:true}")
+    private boolean claimsAuth;
+
     // In your auth filter (e.g., JwtAuthenticationFilter extends OncePerRequestFilter)
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) 
@@ -33,11 +46,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter{
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                // VALIDATE TOKEN ONCE HERE
-                String username = jwtService.extractUsername(token); // parses token
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // VALIDATE TOKEN ONCE HERE: one parse + HMAC check (or a cache hit), expiry included
+                Claims claims = jwtService.verify(token);
+                Long userId = longClaim(claims, "uid");
+                long version = (claims.get("ver") == null) ? 0 : longClaim(claims, "ver");
+
+                // Tokens issued before "uid" existed still go through the database
+                UserDetails userDetails = (claimsAuth && userId != null)
+                        ? principalFrom(claims, userId, version)
+                        : userDetailsService.loadUserByUsername(claims.getSubject());
+
+                // Password reset / verification change since the token was issued
+                if (isRevoked(userId, version, userDetails)) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("{\"error\":\"token_revoked\"}");
+                    return;
+                }
                 
-                if (jwtService.isTokenValid(token, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     // SET PRINCIPAL ONCE
                     UsernamePasswordAuthenticationToken auth = 
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -53,5 +79,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter{
         
         filterChain.doFilter(request, response); // Continue only if auth passed
     }
+
+    // The loaded row is authoritative when there is one, the in-memory table otherwise
+    private boolean isRevoked(Long userId, long version, UserDetails userDetails) {
+        if (userDetails instanceof User user && user.getPassword() != null) {
+            return user.getTokenVersion() != version;
+        }
+        return userId != null && !userTokenVersions.isCurrent(userId, version);
+    }
+
+    // Identity only: id, email, role, account type and verified flag. No names, avatar or password,
+    // see CurrentUserProvider.getEntity() for paths that need the full row.
+    private static User principalFrom(Claims claims, Long userId, long version) {
+        return User.builder()
+                .id(userId)
+                .email(claims.getSubject())
+                .role(Role.valueOf(claims.get("role", String.class)))
+                .accountType(accountType(claims.get("accountType", String.class)))
+                .verified(Boolean.TRUE.equals(claims.get("verified", Boolean.class)))
+                .tokenVersion(version)
+                .build();
+    }
+
+    // Admins carry accountType "ADMIN", which is not an AccountType
+    private static AccountType accountType(String name) {
+        for (AccountType type : AccountType.values()) {
+            if (type.name().equals(name)) return type;
+        }
+        return null;
+    }
+
+    // Small numbers come back from the JSON parser as Integer
+    private static Long longClaim(Claims claims, String name) {
+        Object value = claims.get(name);
+        return (value instanceof Number number) ? number.longValue() : null;
+    }
     
 }
@@ -1,6 +1,7 @@
 package com.example.security.jwt;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -11,9 +12,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import com.example.security.user.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -22,16 +26,55 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
 
-    // Keep this in config; ensure it's consistently Base64 or HEX encoded.
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
-    
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    // Built once from jwt.secret (Base64): decoding the key and building a parser per call
+    // used to cost more than the HMAC check itself
+    private final Key signInKey;
+    private final JwtParser parser;
+
+    // token -> claims of recently verified tokens, so a client's repeated requests skip the
+    // parse + HMAC. Only tokens that passed verification are ever stored; expiry is re-checked on hits.
+    private final Cache<String, Claims> verified;
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.claims-cache.max-tokens:10000}") long maxCachedTokens,
+                      @Value("${jwt.claims-cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setAllowedClockSkewSeconds(CLOCK_SKEW_SECONDS)
+                .setSigningKey(signInKey)
+                .build();
+        // max-tokens=0 turns the cache off
+        this.verified = maxCachedTokens <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    // Parses and verifies the token at most once; every other accessor goes through here.
+    // Throws ExpiredJwtException for expired tokens, JwtException for anything else invalid.
+    public Claims verify(String token) {
+        Claims claims = (verified == null) ? null : verified.getIfPresent(token);
+        if (claims != null) {
+            if (isExpired(claims)) {
+                verified.invalidate(token);
+                throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+            }
+            return claims;
+        }
+
+        claims = extractAllClaims(token);
+        if (verified != null) verified.put(token, claims);
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
 
@@ -45,6 +88,8 @@ public class JwtService {
                 extraClaims.put("accountType", "ADMIN"); // Default for Admin
             }
             extraClaims.put("verified", ((User) userDetails).isVerified());
+            extraClaims.put("uid", ((User) userDetails).getId());
+            extraClaims.put("ver", ((User) userDetails).getTokenVersion());
         }
         return generateToken(extraClaims, userDetails);
     }
@@ -61,38 +106,31 @@ public class JwtService {
             .setSubject(userDetails.getUsername())
             .setIssuedAt(new Date(System.currentTimeMillis()))
             .setExpiration(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * 24)) // 24 hours
-            .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+            .signWith(signInKey, SignatureAlgorithm.HS256)
             .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    // Signature and expiry were already checked by verify(); only the subject is compared here
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null
+                && expiration.getTime() + CLOCK_SKEW_SECONDS * 1000 < System.currentTimeMillis();
     }
-    
+
 private Claims extractAllClaims(String token) {
     try {
-        return Jwts.parserBuilder()
-            .setAllowedClockSkewSeconds(60)
-            .setSigningKey(getSignInKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        return parser.parseClaimsJws(token).getBody();
     } catch (ExpiredJwtException e) {
         System.out.println("Token expired detected"); // ADD THIS
         throw e;
     }
 }
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
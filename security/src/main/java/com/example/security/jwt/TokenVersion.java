@@ -0,0 +1,5 @@
+package com.example.security.jwt;
+
+// Current token version of one user, from UserRepository.findTokenVersions
+public record TokenVersion(Long userId, long version) {
+}
@@ -0,0 +1,56 @@
+package com.example.security.jwt;
+
+import com.example.security.common.AfterCommit;
+import com.example.security.user.entity.User;
+import com.example.security.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revocation check for tokens that are trusted without loading the user (see JwtAuthenticationFilter).
+//
+// Every token carries the user's tokenVersion ("ver") from when it was issued. Anything that must
+// invalidate existing tokens (password reset, verification / role change) calls bump(), and a token
+// whose version is not the current one is rejected.
+// Only users that were ever bumped are kept (everyone else is at 0), roughly 80 bytes per entry.
+// The table is reloaded from _user periodically so bumps made by other instances are picked up.
+@Component
+@RequiredArgsConstructor
+public class UserTokenVersions {
+
+    private final UserRepository userRepository;
+
+    // userId -> current tokenVersion, only for versions > 0
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return versions.getOrDefault(userId, 0L) == tokenVersion;
+    }
+
+    // Atomic increment in the database (the entity never writes token_version), so concurrent bumps
+    // and profile saves can't lose a revocation. The in-memory check follows once the transaction commits.
+    public void bump(User user) {
+        userRepository.incrementTokenVersion(user.getId());
+        long next = userRepository.findTokenVersion(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setTokenVersion(next); // tokens issued from this entity carry the new version
+        AfterCommit.run(() -> versions.merge(user.getId(), next, Math::max));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.token-versions.refresh-ms:60000}", initialDelayString = "${jwt.token-versions.refresh-ms:60000}")
+    public void reload() {
+        for (TokenVersion v : userRepository.findTokenVersions()) {
+            versions.merge(v.userId(), v.version(), Math::max);
+        }
+    }
+
+    public int size() {
+        return versions.size();
+    }
+}
@@ -11,7 +11,13 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "notifications")
+@Table(
+    name = "notifications",
+    indexes = {
+        @Index(name = "idx_notifications_recipient_updated", columnList = "recipient_id, updated_at, id"),
+        @Index(name = "idx_notifications_recipient_open", columnList = "recipient_id, is_read, created_at")
+    }
+)
 public class Notification {
 
     @Id
@@ -23,7 +29,7 @@ public class Notification {
     @JoinColumn(name = "recipient_id")
     private User recipient;
 
-    // Who caused the notification (The "Actor")
+    // Who caused the notification (The "Actor"); the latest one for coalesced rows
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "actor_id")
     private User actor;
@@ -36,5 +42,19 @@ public class Notification {
 
     private boolean isRead;
 
+    // First event of the row; later events within notifications.coalesce.window-minutes merge into it
     private LocalDateTime createdAt;
+
+    // COALESCING (see NotificationAggregator): one row per (recipient, type, relatedPostId) and window
+
+    // Latest event merged into this row; the list is ordered by it
+    private LocalDateTime updatedAt;
+
+    // Distinct actors merged into this row
+    @Column(name = "actor_count", nullable = false, columnDefinition = "bigint default 1")
+    private long actorCount;
+
+    // Ids of the latest actors, newest first, comma separated (at most notifications.coalesce.recent-actors)
+    @Column(name = "recent_actor_ids", length = 255)
+    private String recentActorIds;
 }
\ No newline at end of file
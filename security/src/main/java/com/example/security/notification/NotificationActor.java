@@ -0,0 +1,5 @@
+package com.example.security.notification;
+
+// One of the recent actors of a (coalesced) notification
+public record NotificationActor(Long id, String firstname, String lastname, String profileImageUrl) {
+}
@@ -0,0 +1,202 @@
+package com.example.security.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Coalesces notifications: "Asha and 24 others liked your post" is one row, not 25.
+//
+// Events with the same (recipient, type, relatedPostId) merge into that recipient's unread row for
+// the key if it was started less than notifications.coalesce.window-minutes ago, else they start a
+// new row. A merge bumps actor_count, puts the actor in front of recent_actor_ids (keeping the last
+// notifications.coalesce.recent-actors) and moves updated_at, all in place.
+// Read rows are never reopened, so everything merged after a "mark read" shows up as new.
+//
+// Only NotificationQueue writes notifications, one batch at a time, so read-then-write is safe here;
+// the open rows are locked (FOR UPDATE) so a concurrent mark-read waits for the batch instead of
+// reading a row that is being merged into.
+// Distinct actors are only tracked among the recent ids: someone who likes, unlikes and likes again
+// counts once unless more than recent-actors others came in between.
+@Component
+public class NotificationAggregator {
+
+    private static final String OPEN_ROWS =
+            "SELECT id, recipient_id, type, related_post_id, actor_count, recent_actor_ids, actor_id " +
+            "FROM notifications " +
+            "WHERE recipient_id IN (:recipientIds) AND is_read = false AND created_at >= :since FOR UPDATE";
+
+    private static final String INSERT =
+            "INSERT INTO notifications (recipient_id, actor_id, type, related_post_id, is_read, created_at, " +
+            "updated_at, actor_count, recent_actor_ids) VALUES (?, ?, ?, ?, false, ?, ?, ?, ?)";
+
+    private static final String MERGE =
+            "UPDATE notifications SET actor_id = ?, actor_count = ?, recent_actor_ids = ?, updated_at = ? WHERE id = ?";
+
+    // Badge counters on _user (see NotificationService.unreadCount): +1 per new unread row
+    private static final String COUNT_UNREAD =
+            "UPDATE _user SET unread_notifications = unread_notifications + ? WHERE id = ?";
+
+    private record Key(Long recipientId, NotificationType type, Long relatedPostId) {
+        static Key of(NotificationEvent event) {
+            return new Key(event.recipientId(), event.type(), event.relatedPostId());
+        }
+    }
+
+    // One row being built or merged into; id is null for a new row
+    private static final class Row {
+        private Long id;
+        private long actorCount;
+        private final LinkedHashSet<Long> recent = new LinkedHashSet<>();
+        private Long latestActor;
+        private LocalDateTime first;
+        private LocalDateTime latest;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final long windowMinutes;
+    private final int recentActors;
+
+    public NotificationAggregator(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                  @Value("${notifications.coalesce.window-minutes:60}") long windowMinutes,
+                                  @Value("${notifications.coalesce.recent-actors:5}") int recentActors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.windowMinutes = windowMinutes;
+        this.recentActors = Math.max(1, Math.min(recentActors, 10)); // fits recent_actor_ids
+    }
+
+    // Stores a batch of events (caller's transaction): one lookup, one batched UPDATE, one batched INSERT
+    // and one batched counter update.
+    // Returns the recipients that got something new.
+    public Set<Long> store(List<NotificationEvent> events) {
+        if (events.isEmpty()) return Set.of();
+
+        Map<Key, Row> rows = (windowMinutes > 0) ? openRows(events) : new HashMap<>();
+        Map<Row, Key> keys = new LinkedHashMap<>();
+
+        for (NotificationEvent event : events) {
+            Key key = Key.of(event);
+            Row row = (windowMinutes > 0) ? rows.get(key) : null;
+            if (row == null) {
+                row = new Row();
+                row.first = event.createdAt();
+                if (windowMinutes > 0) rows.put(key, row);
+            }
+            keys.put(row, key);
+            merge(row, event);
+        }
+
+        List<Row> merged = new ArrayList<>();
+        List<Row> fresh = new ArrayList<>();
+        keys.forEach((row, key) -> {
+            if (row.id == null) fresh.add(row);
+            else merged.add(row);
+        });
+
+        if (!merged.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE, merged.stream()
+                    .map(row -> new Object[]{row.latestActor, row.actorCount, recentIds(row), Timestamp.valueOf(row.latest), row.id})
+                    .toList());
+        }
+        if (!fresh.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, fresh.stream().map(row -> {
+                Key key = keys.get(row);
+                return new Object[]{key.recipientId(), row.latestActor, key.type().name(), key.relatedPostId(),
+                        Timestamp.valueOf(row.first), Timestamp.valueOf(row.latest), row.actorCount, recentIds(row)};
+            }).toList());
+            Map<Long, Long> unread = fresh.stream()
+                    .collect(Collectors.groupingBy(row -> keys.get(row).recipientId(), Collectors.counting()));
+            jdbcTemplate.batchUpdate(COUNT_UNREAD, unread.entrySet().stream()
+                    .map(e -> new Object[]{e.getValue(), e.getKey()})
+                    .toList());
+        }
+
+        return keys.values().stream().map(Key::recipientId).collect(Collectors.toSet());
+    }
+
+    private void merge(Row row, NotificationEvent event) {
+        Long actor = event.actorId();
+        boolean known = row.recent.remove(actor);
+        if (!known) row.actorCount++;
+        // newest first: re-insert everything behind the new actor
+        List<Long> rest = new ArrayList<>(row.recent);
+        row.recent.clear();
+        row.recent.add(actor);
+        rest.stream().limit(recentActors - 1).forEach(row.recent::add);
+        row.latestActor = actor;
+        row.latest = (row.latest == null || event.createdAt().isAfter(row.latest)) ? event.createdAt() : row.latest;
+    }
+
+    // Unread rows inside the window for the recipients of this batch, by key
+    private Map<Key, Row> openRows(Collection<NotificationEvent> events) {
+        Set<Long> recipientIds = events.stream().map(NotificationEvent::recipientId).collect(Collectors.toSet());
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("recipientIds", recipientIds)
+                .addValue("since", Timestamp.valueOf(LocalDateTime.now().minusMinutes(windowMinutes)));
+
+        Map<Key, Row> rows = new HashMap<>();
+        namedJdbcTemplate.query(OPEN_ROWS, params, rs -> {
+            long postId = rs.getLong("related_post_id");
+            boolean noPost = rs.wasNull(); // follows
+            Key key = new Key(rs.getLong("recipient_id"), NotificationType.valueOf(rs.getString("type")),
+                    noPost ? null : postId);
+            Row row = new Row();
+            row.id = rs.getLong("id");
+            row.actorCount = rs.getLong("actor_count");
+            row.recent.addAll(parseIds(rs.getString("recent_actor_ids"), rs.getLong("actor_id")));
+            // several open rows for one key (e.g. from before coalescing): merge into the newest
+            Row existing = rows.get(key);
+            if (existing == null || existing.id < row.id) rows.put(key, row);
+        });
+        return rows;
+    }
+
+    private static String recentIds(Row row) {
+        return row.recent.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    // Rows from before coalescing have no list: their single actor is the list
+    public static List<Long> parseIds(String csv, Long actorId) {
+        if (csv == null || csv.isBlank()) return actorId == null ? List.of() : List.of(actorId);
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                .map(Long::valueOf).toList();
+    }
+
+    // Rows written before coalescing existed: one actor each, last touched when created.
+    // That upgrade is also when the unread counters start out at 0, so only then are they recounted;
+    // after it the counters are kept exact and recountUnread() is an explicit repair (AdminController).
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int rows = jdbcTemplate.update("UPDATE notifications SET updated_at = created_at WHERE updated_at IS NULL");
+        if (rows > 0) {
+            System.out.println("NOTIFICATIONS BACKFILLED: " + rows + " rows");
+            recountUnread();
+        }
+    }
+
+    // One correlated COUNT per user over notifications: O(users x notifications), never on a hot path
+    public int recountUnread() {
+        int users = jdbcTemplate.update("UPDATE _user SET unread_notifications = " +
+                "(SELECT COUNT(*) FROM notifications n WHERE n.recipient_id = _user.id AND n.is_read = false)");
+        System.out.println("UNREAD NOTIFICATION COUNTERS RECOUNTED for " + users + " users");
+        return users;
+    }
+}
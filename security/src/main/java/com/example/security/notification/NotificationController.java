@@ -1,11 +1,17 @@
 package com.example.security.notification;
 
+import com.example.security.common.ConditionalGet;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
+import com.example.security.user.CurrentUserProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-import java.util.List;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/notifications")
@@ -13,9 +19,31 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final ContentVersions contentVersions;
+    private final CurrentUserProvider currentUserProvider;
 
+    // GET /api/v1/notifications?cursor=...&size=20
+    // 304 until a notification arrives or is read for the current user
     @GetMapping
-    public ResponseEntity<List<NotificationResponse>> getNotifications() {
-        return ResponseEntity.ok(notificationService.getMyNotifications());
+    public ResponseEntity<CursorPage<NotificationResponse>> getNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request
+    ) {
+        String etag = contentVersions.notificationsTag(currentUserProvider.get().getId(), cursor, CursorPage.clampSize(size));
+        return ConditionalGet.respond(request, etag, () -> notificationService.getMyNotifications(cursor, size));
+    }
+
+    // Badge count, from the counter on the user row
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount() {
+        return ResponseEntity.ok(Map.of("count", notificationService.unreadCount()));
+    }
+
+    // POST /api/v1/notifications/mark-read?seenUpTo=2025-01-31T10:15:30  (newest updatedAt seen; everything when omitted)
+    @PostMapping("/mark-read")
+    public ResponseEntity<Map<String, Integer>> markRead(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime seenUpTo) {
+        return ResponseEntity.ok(Map.of("marked", notificationService.markRead(seenUpTo)));
     }
-}
\ No newline at end of file
+}
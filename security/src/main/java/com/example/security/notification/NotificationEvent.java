@@ -0,0 +1,9 @@
+package com.example.security.notification;
+
+import java.time.LocalDateTime;
+
+// "Something happened that recipientId should hear about", published by the write paths and stored
+// by NotificationQueue once their transaction has committed. Ids only: nobody has to load the users.
+public record NotificationEvent(Long recipientId, Long actorId, NotificationType type, Long relatedPostId,
+                                LocalDateTime createdAt) {
+}
@@ -0,0 +1,152 @@
+package com.example.security.notification;
+
+import com.example.security.common.ContentVersions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stores notifications off the user-facing write paths.
+//
+// NotificationEvents are taken after their transaction commits (so a rolled-back like or comment
+// never notifies anyone) into a bounded queue, and written every notifications.queue.drain-ms in
+// batches of up to notifications.queue.batch-size events, coalesced by NotificationAggregator.
+//
+// Back-pressure: when the queue is full the publishing thread drains a batch itself (like
+// LikeBuffer); if it is still full the notification is dropped and counted.
+// Failures: a failed batch is retried event by event; events that keep failing (e.g. the recipient was
+// deleted meanwhile) are retried on later drains and dropped after notifications.queue.max-attempts.
+@Component
+public class NotificationQueue {
+
+    private record Retry(NotificationEvent event, int attempts) {
+    }
+
+    private final NotificationAggregator notificationAggregator;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentVersions contentVersions;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final BlockingQueue<NotificationEvent> queue;
+    // rows that failed on their own, written first on the next drain
+    private final ConcurrentLinkedQueue<Retry> retries = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public NotificationQueue(NotificationAggregator notificationAggregator, PlatformTransactionManager transactionManager,
+                             ContentVersions contentVersions,
+                             @Value("${notifications.queue.capacity:10000}") int capacity,
+                             @Value("${notifications.queue.batch-size:500}") int batchSize,
+                             @Value("${notifications.queue.max-attempts:3}") int maxAttempts) {
+        this.notificationAggregator = notificationAggregator;
+        // REQUIRES_NEW: onEvent may drain inline during afterCommit, where the finished transaction is
+        // still bound and joining it would leave the batch uncommitted
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.contentVersions = contentVersions;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    // fallbackExecution: events published outside a transaction are queued right away
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEvent(NotificationEvent event) {
+        if (!queue.offer(event)) {
+            drain();
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+                System.out.println("NOTIFICATION DROPPED (queue full): " + event);
+                return;
+            }
+        }
+        accepted.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.queue.drain-ms:250}")
+    public void drainAll() {
+        while (drain() == batchSize) {
+            // keep going while there are full batches waiting
+        }
+    }
+
+    // Writes one batch, returns how many events it took
+    public synchronized int drain() {
+        List<Retry> batch = new ArrayList<>();
+        while (!retries.isEmpty() && batch.size() < batchSize) batch.add(retries.poll());
+        List<NotificationEvent> fresh = new ArrayList<>();
+        queue.drainTo(fresh, batchSize - batch.size());
+        fresh.forEach(event -> batch.add(new Retry(event, 0)));
+        if (batch.isEmpty()) return 0;
+
+        Set<Long> recipients = new HashSet<>();
+        int stored = 0;
+        try {
+            // one transaction, so a failed batch leaves nothing behind to duplicate on retry
+            recipients.addAll(store(batch.stream().map(Retry::event).toList()));
+            stored = batch.size();
+        } catch (RuntimeException e) {
+            System.out.println("NOTIFICATION BATCH FAILED, retrying one by one: " + e.getMessage());
+            for (Retry retry : batch) {
+                try {
+                    recipients.addAll(store(List.of(retry.event())));
+                    stored++;
+                } catch (RuntimeException rowError) {
+                    retryLater(retry);
+                }
+            }
+        }
+        batches.incrementAndGet();
+        written.addAndGet(stored);
+
+        recipients.forEach(contentVersions::notificationsChanged);
+        return batch.size();
+    }
+
+    private void retryLater(Retry retry) {
+        if (retry.attempts() + 1 >= maxAttempts) {
+            dropped.incrementAndGet();
+            System.out.println("NOTIFICATION DROPPED after " + maxAttempts + " attempts: " + retry.event());
+        } else {
+            retries.add(new Retry(retry.event(), retry.attempts() + 1));
+        }
+    }
+
+    private Set<Long> store(List<NotificationEvent> events) {
+        return transactionTemplate.execute(status -> notificationAggregator.store(events));
+    }
+
+    // Whatever is still queued is written before shutdown
+    @PreDestroy
+    public void close() {
+        int rounds = queue.size() / batchSize + maxAttempts + 1; // bounded: a dead database must not hang shutdown
+        while ((!queue.isEmpty() || !retries.isEmpty()) && rounds-- > 0) {
+            drain();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of("queued", (long) queue.size(), "retrying", (long) retries.size(),
+                "accepted", accepted.get(), "written", written.get(),
+                "dropped", dropped.get(), "batches", batches.get());
+    }
+}
@@ -1,14 +1,43 @@
 package com.example.security.notification;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import com.example.security.user.entity.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    
-    // Fetch latest notifications for a user
-    List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
-    
-    // Count unread (Useful for badges later)
-    long countByRecipientAndIsReadFalse(User recipient);
-}
\ No newline at end of file
+
+    // PAGES of a user's notifications as read-only views joined with the latest actor, latest activity
+    // first, keyset on (updatedAt, id): range scans of idx_notifications_recipient_updated
+    String VIEWS_OF_RECIPIENT = "SELECT new com.example.security.notification.NotificationView(n.id, n.type, " +
+            "n.relatedPostId, n.createdAt, n.updatedAt, n.isRead, n.actorCount, n.recentActorIds, " +
+            "a.id, a.firstname, a.lastname, a.profileImageUrl) " +
+            "FROM Notification n JOIN n.actor a WHERE n.recipient.id = :recipientId ";
+
+    @Query(VIEWS_OF_RECIPIENT + "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NotificationView> findPage(@Param("recipientId") Long recipientId, Pageable pageable);
+
+    @Query(VIEWS_OF_RECIPIENT + "AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NotificationView> findPageAfter(@Param("recipientId") Long recipientId,
+                                         @Param("updatedAt") LocalDateTime updatedAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    // Names / avatars of the recent actors of a whole page, in one query
+    @Query("SELECT new com.example.security.notification.NotificationActor(u.id, u.firstname, u.lastname, u.profileImageUrl) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<NotificationActor> findActors(@Param("ids") Collection<Long> ids);
+
+    // One UPDATE instead of loading and saving every notification; returns how many became read.
+    // The watermark is updatedAt, not id: a coalesced row keeps its old id while new actors are merged in
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.recipient.id = :recipientId AND n.updatedAt <= :seenUpTo AND n.isRead = false")
+    int markReadSeenUpTo(@Param("recipientId") Long recipientId, @Param("seenUpTo") LocalDateTime seenUpTo);
+}
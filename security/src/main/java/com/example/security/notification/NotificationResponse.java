@@ -2,6 +2,7 @@ package com.example.security.notification;
 import lombok.Builder;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -13,4 +14,11 @@ public class NotificationResponse {
     private Long actorId;
     private Long relatedPostId;
     private LocalDateTime createdAt;
+
+    // Coalesced rows: actorName / actorId are the latest actor, actorCount counts everyone
+    // ("Asha and 24 others"), recentActors are the latest few, newest first
+    private long actorCount;
+    private List<NotificationActor> recentActors;
+    private LocalDateTime updatedAt;
+    private boolean read;
 }
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.example.security.notification;
 
-import com.example.security.user.entity.User;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
+import com.example.security.common.PageCursor;
+import com.example.security.user.CurrentUserProvider;
 import com.example.security.user.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -15,49 +24,83 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ContentVersions contentVersions;
 
-    private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email).orElseThrow();
+    // Only publishes: NotificationQueue stores it after the caller's transaction commits
+    public void createNotification(Long recipientId, Long actorId, NotificationType type, Long postId) {
+        // Don't notify if user likes their own post
+        if (recipientId.equals(actorId)) return;
+
+        eventPublisher.publishEvent(new NotificationEvent(recipientId, actorId, type, postId, LocalDateTime.now()));
     }
 
-    public void createNotification(User recipient, User actor, NotificationType type, Long postId) {
-        // Don't notify if user likes their own post
-        if (recipient.getId().equals(actor.getId())) return;
-
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .actor(actor)
-                .type(type)
-                .relatedPostId(postId)
-                .isRead(false)
-                .createdAt(LocalDateTime.now())
-                .build();
+    // One page of the current user's notifications, latest activity first. Reading does not mark
+    // anything read (see markRead). Recent actors of the whole page are loaded in one query.
+    public CursorPage<NotificationResponse> getMyNotifications(String cursor, Integer size) {
+        Long userId = currentUserProvider.get().getId();
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
 
-        notificationRepository.save(notification);
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        List<NotificationView> notifications = (after == null)
+                ? notificationRepository.findPage(userId, fetch)
+                : notificationRepository.findPageAfter(userId, after.createdAt(), after.id(), fetch);
+
+        return CursorPage.slice(notifications, limit,
+                n -> new PageCursor(n.updatedAt(), n.id()).encode(),
+                this::mapToResponses);
+    }
+
+    // Marks everything last updated at or before seenUpTo (the newest updatedAt the user has seen;
+    // all when null) read in one UPDATE. Actors merged into a row after that keep it unread.
+    @Transactional
+    public int markRead(LocalDateTime seenUpTo) {
+        Long userId = currentUserProvider.get().getId();
+        int rows = notificationRepository.markReadSeenUpTo(userId, seenUpTo == null ? LocalDateTime.now() : seenUpTo);
+        if (rows > 0) {
+            userRepository.adjustUnreadNotifications(userId, -rows);
+            contentVersions.notificationsChanged(userId);
+        }
+        return rows;
     }
 
-    public List<NotificationResponse> getMyNotifications() {
-        User currentUser = getCurrentUser();
-        List<Notification> notifications = notificationRepository.findByRecipientOrderByCreatedAtDesc(currentUser);
+    // The badge: one primary-key read of the counter kept on the user row
+    public long unreadCount() {
+        return userRepository.findUnreadNotifications(currentUserProvider.get().getId())
+                .map(count -> Math.max(0, count))
+                .orElse(0L);
+    }
 
-        // Mark all as read when fetched (Simple approach)
-        // In a complex app, you'd mark them read only when clicked
-        notifications.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(notifications);
+    private List<NotificationResponse> mapToResponses(List<NotificationView> page) {
+        List<Long> actorIds = page.stream()
+                .flatMap(n -> NotificationAggregator.parseIds(n.recentActorIds(), n.actorId()).stream())
+                .distinct()
+                .toList();
+        Map<Long, NotificationActor> actors = actorIds.isEmpty() ? Map.of()
+                : notificationRepository.findActors(actorIds).stream()
+                        .collect(Collectors.toMap(NotificationActor::id, Function.identity()));
 
-        return notifications.stream().map(this::mapToResponse).toList();
+        return page.stream().map(n -> mapToResponse(n, actors)).toList();
     }
 
-    private NotificationResponse mapToResponse(Notification n) {
+    private NotificationResponse mapToResponse(NotificationView n, Map<Long, NotificationActor> actors) {
         return NotificationResponse.builder()
-                .id(n.getId())
-                .actorName(n.getActor().getFirstname() + " " + n.getActor().getLastname())
-                .actorImageUrl(n.getActor().getProfileImageUrl())
-                .actorId(n.getActor().getId()) // AND MAPPED HERE
-                .type(n.getType().name())
-                .relatedPostId(n.getRelatedPostId())
-                .createdAt(n.getCreatedAt())
+                .id(n.id())
+                .actorName(n.actorFirstname() + " " + n.actorLastname())
+                .actorImageUrl(n.actorImageUrl())
+                .actorId(n.actorId()) // AND MAPPED HERE
+                .type(n.type().name())
+                .relatedPostId(n.relatedPostId())
+                .createdAt(n.createdAt())
+                .updatedAt(n.updatedAt())
+                .actorCount(Math.max(1, n.actorCount()))
+                .recentActors(NotificationAggregator.parseIds(n.recentActorIds(), n.actorId()).stream()
+                        .map(actors::get)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .read(n.read())
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.example.security.notification;
+
+import java.time.LocalDateTime;
+
+// Read-only row for the notification list: notification + actor columns in one query
+public record NotificationView(Long id, NotificationType type, Long relatedPostId, LocalDateTime createdAt,
+                               LocalDateTime updatedAt, boolean read, long actorCount, String recentActorIds,
+                               Long actorId, String actorFirstname, String actorLastname, String actorImageUrl) {
+}
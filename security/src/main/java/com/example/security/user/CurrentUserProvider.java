@@ -0,0 +1,74 @@
+package com.example.security.user;
+
+import com.example.security.user.entity.User;
+import com.example.security.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// The authenticated User of the current request, for every service and controller.
+// JwtAuthenticationFilter already put a User in the security context as the principal, so normally
+// this costs nothing. For any other kind of principal the user is looked up by name once and kept
+// on the request. The User is detached: fine for reading and as a relation target.
+//
+// With claims auth (jwt.claims-auth.enabled) the principal only holds what the token carries:
+// id, email, role, account type, verified. Use getEntity() when names / avatar are shown or the
+// user is changed and saved.
+@Component
+@RequiredArgsConstructor
+public class CurrentUserProvider {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserProvider.class.getName();
+    private static final String ENTITY_ATTRIBUTE = REQUEST_ATTRIBUTE + ".entity";
+
+    private final UserRepository userRepository;
+
+    // Strict (create/update/delete): fails when nobody is logged in
+    public User get() {
+        User user = getOrNull();
+        if (user == null) throw new RuntimeException("User not found");
+        return user;
+    }
+
+    // Full _user row of the logged-in user, loaded at most once per request
+    public User getEntity() {
+        User user = get();
+        if (user.getPassword() != null) return user; // already a loaded row, not built from claims
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(ENTITY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached) {
+            return cached;
+        }
+        User entity = userRepository.findById(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (request != null) {
+            request.setAttribute(ENTITY_ATTRIBUTE, entity, RequestAttributes.SCOPE_REQUEST);
+        }
+        return entity;
+    }
+
+    // Optional (public reads): null for anonymous requests
+    public User getOrNull() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        if (auth.getPrincipal() instanceof User user) {
+            return user;
+        }
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached) {
+            return cached;
+        }
+        User user = userRepository.findByEmail(auth.getName()).orElse(null);
+        if (request != null && user != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+}
@@ -3,8 +3,15 @@ package com.example.security.user;
 import com.example.security.user.dto.UpdateProfileRequest;
 import com.example.security.user.dto.UserProfileDTO;
 import com.example.security.user.entity.User;
+import com.example.security.blog.comment.CommentPageCache;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.ContentVersions;
+import com.example.security.common.CursorPage;
+import com.example.security.common.OffsetCursor;
+import com.example.security.user.follow.FollowCount;
 import com.example.security.user.follow.FollowRepository;
 import com.example.security.user.repository.UserRepository;
+import com.example.security.user.search.UserSearchIndex;
 
 import io.jsonwebtoken.io.IOException;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +21,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,16 +36,34 @@ import org.springframework.web.multipart.MultipartFile;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final FollowRepository followRepository;
+    private final UserSearchIndex userSearchIndex;
+    private final ContentVersions contentVersions;
+    private final PostViewCache postViewCache;
+    private final CommentPageCache commentPageCache;
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName(); // subject in JWT = email
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
+    // Search results never go deeper than this
+    private static final int SEARCH_MAX_RESULTS = 200;
 
     private UserProfileDTO mapToDto(User user) {
+        return mapToDto(user, followRepository.countByFollowing(user), followRepository.countByFollower(user));
+    }
+
+    // Lists: follow counts for all users in two grouped queries instead of two per user
+    private List<UserProfileDTO> mapToDtos(List<User> users) {
+        if (users.isEmpty()) return List.of();
+        List<Long> ids = users.stream().map(User::getId).toList();
+        Map<Long, Long> followers = followRepository.countFollowers(ids).stream()
+                .collect(Collectors.toMap(FollowCount::userId, FollowCount::count));
+        Map<Long, Long> following = followRepository.countFollowing(ids).stream()
+                .collect(Collectors.toMap(FollowCount::userId, FollowCount::count));
+        return users.stream()
+                .map(u -> mapToDto(u, followers.getOrDefault(u.getId(), 0L), following.getOrDefault(u.getId(), 0L)))
+                .toList();
+    }
+
+    private UserProfileDTO mapToDto(User user, long followerCount, long followingCount) {
         return UserProfileDTO.builder()
                 .id(user.getId())
                 .firstName(user.getFirstname())
@@ -46,15 +73,15 @@ public class UserController {
                 .role(user.getRole() != null ? user.getRole().name() : null)
                 .verified(user.isVerified())
                 .profileImageUrl(user.getProfileImageUrl())
-                .followerCount(followRepository.countByFollowing(user)) 
-                .followingCount(followRepository.countByFollower(user))
+                .followerCount(followerCount)
+                .followingCount(followingCount)
                 .build();
     }
 
     // 🔹 READ: Current logged-in user profile
     @GetMapping("/me")
     public ResponseEntity<UserProfileDTO> getMyProfile() {
-        User current = getCurrentUser();
+        User current = currentUserProvider.getEntity();
         return ResponseEntity.ok(mapToDto(current));
     }
 
@@ -71,12 +98,16 @@ public class UserController {
     // UPDATE: Basic profile fields
     @PutMapping("/me")
     public ResponseEntity<UserProfileDTO> updateMyProfile(@RequestBody UpdateProfileRequest request) {
-        User current = getCurrentUser();
+        User current = currentUserProvider.getEntity();
 
         current.setFirstname(request.getFirstName());
         current.setLastname(request.getLastName());
 
         User saved = userRepository.save(current);
+        userSearchIndex.put(saved);
+        contentVersions.profileChanged();
+        postViewCache.invalidateAll(); // author name / avatar
+        commentPageCache.invalidateAll();
         return ResponseEntity.ok(mapToDto(saved));
     }
 
@@ -87,27 +118,34 @@ public class UserController {
         List<User> teachers = userRepository.findRandomVerifiedTeachers();
         
         // 2. Map to DTOs
-        List<UserProfileDTO> response = teachers.stream()
-                .map(this::mapToDto)
-                .toList();
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(mapToDtos(teachers));
     }
 
-    // GET /api/v1/user/search?query=John
+    // GET /api/v1/user/search?query=John&cursor=...&size=20
+    // Prefix and typo-tolerant name match from UserSearchIndex, verified teachers first
     @GetMapping("/search")
-    public ResponseEntity<List<UserProfileDTO>> searchUsers(@RequestParam("query") String query) {
+    public ResponseEntity<CursorPage<UserProfileDTO>> searchUsers(
+            @RequestParam("query") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
         if (query == null || query.trim().isEmpty()) {
-            return ResponseEntity.ok(List.of());
+            return ResponseEntity.ok(CursorPage.of(List.of(), null));
         }
+        int offset = OffsetCursor.decode(cursor);
+        int limit = CursorPage.clampSize(size);
 
-        List<User> users = userRepository.findByFirstnameContainingIgnoreCaseOrLastnameContainingIgnoreCase(query, query);
-        
-        List<UserProfileDTO> response = users.stream()
-                .map(this::mapToDto)
-                .toList();
+        List<Long> ranked = userSearchIndex.search(query, SEARCH_MAX_RESULTS);
+        if (offset >= ranked.size()) return ResponseEntity.ok(CursorPage.of(List.of(), null));
+
+        int end = Math.min(offset + limit, ranked.size());
+        List<Long> pageIds = ranked.subList(offset, end);
+        Map<Long, User> byId = userRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> users = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+        String next = end < ranked.size() ? new OffsetCursor(end).encode() : null;
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(CursorPage.of(mapToDtos(users), next));
     }
 
     @PostMapping("/profile-image")
@@ -118,7 +156,7 @@ public class UserController {
             return ResponseEntity.badRequest().build();
         }
 
-        User current = getCurrentUser();
+        User current = currentUserProvider.getEntity();
 
         // create upload directory if not exists
         String uploadDir = "uploads/profile-images/";
@@ -140,6 +178,9 @@ public class UserController {
 
         current.setProfileImageUrl(imageUrl);
         User saved = userRepository.save(current);
+        contentVersions.profileChanged();
+        postViewCache.invalidateAll(); // author name / avatar
+        commentPageCache.invalidateAll();
 
         return ResponseEntity.ok(mapToDto(saved));
     }
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.jspecify.annotations.Nullable;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -30,6 +31,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Entity
 @Table(name = "_user")
+@DynamicUpdate // only write changed columns, so saving a profile never overwrites the counter below
 public class User implements UserDetails{
 
     @Id
@@ -55,6 +57,20 @@ public class User implements UserDetails{
     private String resetPasswordToken;
     private LocalDateTime resetPasswordTokenExpiry;
 
+    // Bumped by UserTokenVersions to revoke every token issued before.
+    // Never written from the entity, so a save that loaded an older row can't roll a revocation back
+    @Column(name = "token_version", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long tokenVersion;
+
+    // Followers read this author's posts by pull (see CelebrityRegistry); only written by UserRepository.setFeedPull*
+    @Column(name = "feed_pull", nullable = false, updatable = false, columnDefinition = "boolean default false")
+    private boolean feedPull;
+
+    // Unread notification rows, kept in step by NotificationAggregator and mark-read (the badge).
+    // Never written from the entity: only UserRepository.adjustUnreadNotifications and the aggregator change it
+    @Column(name = "unread_notifications", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long unreadNotifications;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
@@ -0,0 +1,5 @@
+package com.example.security.user.follow;
+
+// Followers (or followings) of one user, from a grouped count query
+public record FollowCount(Long userId, Long count) {
+}
@@ -2,7 +2,10 @@ package com.example.security.user.follow;
 
 import com.example.security.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +22,32 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
     List<Follow> findByFollowing(User following);
 
     long countByFollower(User follower);
+
+    // Which of these users does the follower follow? (bulk version of existsByFollowerAndFollowing)
+    @Query("SELECT f.following.id FROM Follow f WHERE f.follower.id = :followerId AND f.following.id IN :userIds")
+    List<Long> findFollowedIds(@Param("followerId") Long followerId, @Param("userIds") Collection<Long> userIds);
+
+    // Users with at least `min` followers (feed fan-out strategy)
+    @Query("SELECT f.following.id FROM Follow f GROUP BY f.following.id HAVING COUNT(f) >= :min")
+    List<Long> findUsersWithFollowersAtLeast(@Param("min") long min);
+
+    // Follower / following counts for a page of users, one grouped query each (users with 0 are absent)
+    @Query("SELECT new com.example.security.user.follow.FollowCount(f.following.id, COUNT(f)) FROM Follow f " +
+           "WHERE f.following.id IN :userIds GROUP BY f.following.id")
+    List<FollowCount> countFollowers(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT new com.example.security.user.follow.FollowCount(f.follower.id, COUNT(f)) FROM Follow f " +
+           "WHERE f.follower.id IN :userIds GROUP BY f.follower.id")
+    List<FollowCount> countFollowing(@Param("userIds") Collection<Long> userIds);
+
+    // Follower / following lists as read-only views, newest follow first, one query each
+    @Query("SELECT new com.example.security.user.follow.FollowUserView(u.id, u.firstname, u.lastname, u.email, " +
+           "u.accountType, u.profileImageUrl) FROM Follow f JOIN f.follower u WHERE f.following.id = :userId " +
+           "ORDER BY f.createdAt DESC")
+    List<FollowUserView> findFollowerViews(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.security.user.follow.FollowUserView(u.id, u.firstname, u.lastname, u.email, " +
+           "u.accountType, u.profileImageUrl) FROM Follow f JOIN f.following u WHERE f.follower.id = :userId " +
+           "ORDER BY f.createdAt DESC")
+    List<FollowUserView> findFollowingViews(@Param("userId") Long userId);
 }
@@ -1,15 +1,16 @@
 package com.example.security.user.follow;
 
+import com.example.security.blog.feed.TimelineService;
+import com.example.security.common.ContentVersions;
 import com.example.security.notification.NotificationService;
 import com.example.security.notification.NotificationType;
 import com.example.security.user.AccountType;
 import com.example.security.user.dto.UserProfileDTO;
+import com.example.security.user.CurrentUserProvider;
 import com.example.security.user.entity.User;
 import com.example.security.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,19 +22,14 @@ import java.util.stream.Collectors;
 public class FollowService {
 
     private final FollowRepository followRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
-
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName(); // username = email
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
-
+    private final TimelineService timelineService;
+    private final ContentVersions contentVersions;
 
     public void followTeacher(Long teacherId) {
-        User current = getCurrentUser();
+        User current = currentUserProvider.get();
         System.out.println("FOLLOW: currentUser=" + current.getId() + " type=" + current.getAccountType() + ", teacherId=" + teacherId);
         if (current.getAccountType() != AccountType.STUDENT) {
             throw new RuntimeException("Only students can follow teachers");
@@ -61,18 +57,20 @@ public class FollowService {
                 .build();
 
         followRepository.save(follow);
+        timelineService.onFollow(current, teacher); // copy the teacher's recent posts into the timeline
+        contentVersions.viewerChanged(current.getEmail()); // followingAuthor flags
         
         // 3. TRIGGER NOTIFICATION
         notificationService.createNotification(
-            teacher,                 // Recipient (The teacher being followed)
-            current,                 // Actor (The student who followed)
+            teacher.getId(),         // Recipient (The teacher being followed)
+            current.getId(),         // Actor (The student who followed)
             NotificationType.FOLLOW, 
             null                     // No post ID
         );
     }
 
     public void unfollowTeacher(Long teacherId) {
-        User current = getCurrentUser();
+        User current = currentUserProvider.get();
         System.out.println("UNFOLLOW: currentUser=" + current.getId() + " type=" + current.getAccountType() + ", teacherId=" + teacherId);
         if(current.getAccountType() != AccountType.STUDENT) {
             throw new RuntimeException("Only students can unfollow teachers");
@@ -82,54 +80,44 @@ public class FollowService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         followRepository.findByFollowerAndFollowing(current, teacher)
-                .ifPresent(followRepository::delete);
+                .ifPresent(follow -> {
+                    followRepository.delete(follow);
+                    timelineService.onUnfollow(current, teacher);
+                    contentVersions.viewerChanged(current.getEmail());
+                });
     }
 
 //  NEW METHOD: Get list of students following a teacher
     public List<UserProfileDTO> getFollowers(Long teacherId) {
-        User teacher = userRepository.findById(teacherId)
-                .orElseThrow(() -> new RuntimeException("Teacher not found"));
-
-        // Get the list of Follow entities where 'following' is the teacher
-        List<Follow> follows = followRepository.findByFollowing(teacher);
-
-        // Convert List<Follow> -> List<UserProfileDTO>
-        return follows.stream()
-                .map(follow -> {
-                    User student = follow.getFollower(); // Get the student
-                    return UserProfileDTO.builder()
-                            .id(student.getId())
-                            .firstName(student.getFirstname())
-                            .lastName(student.getLastname())
-                            .email(student.getEmail())
-                            .accountType(student.getAccountType().name())
-                            .profileImageUrl(student.getProfileImageUrl())
-                            // .role(...) if needed
-                            .build();
-                })
+        if (!userRepository.existsById(teacherId)) {
+            throw new RuntimeException("Teacher not found");
+        }
+
+        // Students following the teacher, straight into the DTO
+        return followRepository.findFollowerViews(teacherId).stream()
+                .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
 
 //  NEW METHOD: Get list of teachers whom a student follows
-public List<UserProfileDTO> getFollowing(Long studentId) {
-    User student = userRepository.findById(studentId)
-            .orElseThrow(() -> new RuntimeException("Student not found"));
-
-    // Get list of Follow entities where 'follower' is the student
-    List<Follow> follows = followRepository.findByFollower(student);
-
-    return follows.stream()
-            .map(follow -> {
-                User teacher = follow.getFollowing(); // Get the teacher
-                return UserProfileDTO.builder()
-                        .id(teacher.getId())
-                        .firstName(teacher.getFirstname())
-                        .lastName(teacher.getLastname())
-                        .email(teacher.getEmail())
-                        .accountType(teacher.getAccountType().name())
-                        .profileImageUrl(teacher.getProfileImageUrl())
-                        .build();
-            })
-            .collect(Collectors.toList());
-}
+    public List<UserProfileDTO> getFollowing(Long studentId) {
+        if (!userRepository.existsById(studentId)) {
+            throw new RuntimeException("Student not found");
+        }
+
+        return followRepository.findFollowingViews(studentId).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    private UserProfileDTO mapToDto(FollowUserView user) {
+        return UserProfileDTO.builder()
+                .id(user.id())
+                .firstName(user.firstname())
+                .lastName(user.lastname())
+                .email(user.email())
+                .accountType(user.accountType().name())
+                .profileImageUrl(user.profileImageUrl())
+                .build();
+    }
 }
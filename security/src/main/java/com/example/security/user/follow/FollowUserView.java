@@ -0,0 +1,8 @@
+package com.example.security.user.follow;
+
+import com.example.security.user.AccountType;
+
+// Read-only row for follower / following lists: just the user columns the list shows
+public record FollowUserView(Long id, String firstname, String lastname, String email,
+                             AccountType accountType, String profileImageUrl) {
+}
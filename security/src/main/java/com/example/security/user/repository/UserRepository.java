@@ -1,21 +1,60 @@
 package com.example.security.user.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.security.jwt.TokenVersion;
 import com.example.security.user.entity.User;
 
+import jakarta.transaction.Transactional;
+
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByResetPasswordToken(String token);
 
-    List<User> findByFirstnameContainingIgnoreCaseOrLastnameContainingIgnoreCase(String firstname, String lastname);
-
     // NATIVE QUERY FOR RANDOM SELECTION (Works for MySQL)
     @Query(value = "SELECT * FROM _user WHERE account_type = 'TEACHER' AND verified = true ORDER BY RAND() LIMIT 2", nativeQuery = true)
     List<User> findRandomVerifiedTeachers();
+
+    // Users whose tokens were ever revoked (see UserTokenVersions)
+    @Query("SELECT new com.example.security.jwt.TokenVersion(u.id, u.tokenVersion) FROM User u WHERE u.tokenVersion > 0")
+    List<TokenVersion> findTokenVersions();
+
+    // Atomic revocation (see UserTokenVersions.bump); joins the caller's transaction if there is one
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findTokenVersion(@Param("userId") Long userId);
+
+    // Pull-mode feed authors (see CelebrityRegistry), persisted so a restart keeps serving their posts
+    @Query("SELECT u.id FROM User u WHERE u.feedPull = true")
+    List<Long> findFeedPullAuthors();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.feedPull = true WHERE u.id IN :ids AND u.feedPull = false")
+    int setFeedPull(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.feedPull = false WHERE u.id IN :ids AND u.feedPull = true")
+    int clearFeedPull(@Param("ids") Collection<Long> ids);
+
+    // Notification badge (see NotificationService.unreadCount)
+    @Query("SELECT u.unreadNotifications FROM User u WHERE u.id = :userId")
+    Optional<Long> findUnreadNotifications(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.unreadNotifications = u.unreadNotifications + :delta WHERE u.id = :userId")
+    int adjustUnreadNotifications(@Param("userId") Long userId, @Param("delta") long delta);
 }
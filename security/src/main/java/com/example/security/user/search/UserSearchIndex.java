@@ -0,0 +1,189 @@
+package com.example.security.user.search;
+
+import com.example.security.user.AccountType;
+import com.example.security.user.entity.User;
+import com.example.security.user.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory name index behind /api/v1/user/search.
+//
+// Every first/last name token is split into trigrams, padded at the front ("$$j", "$jo", "joh", "ohn")
+// so that short prefixes are trigrams too. A query collects the users sharing trigrams with it, then
+// each query token must match one of the user's name tokens by prefix, by substring, or (4+ letters)
+// within a small edit distance ("jhon" -> "john"). Verified teachers rank first, then match quality.
+//
+// Kept in sync by register / profile update / verification toggle; built from _user on startup.
+@Component
+public class UserSearchIndex {
+
+    private static final int MAX_QUERY_TOKENS = 4;
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public UserSearchIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Ids of the best `limit` matches, best first
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = tokens(query);
+        if (queryTokens.size() > MAX_QUERY_TOKENS) queryTokens = queryTokens.subList(0, MAX_QUERY_TOKENS);
+        if (queryTokens.isEmpty()) return List.of();
+
+        // candidates: users sharing at least one trigram with every query token
+        Map<Long, Integer> hits = new HashMap<>();
+        for (String token : queryTokens) {
+            Set<Long> matched = new HashSet<>();
+            for (String gram : trigrams(token)) {
+                matched.addAll(postings.getOrDefault(gram, Set.of()));
+            }
+            matched.forEach(id -> hits.merge(id, 1, Integer::sum));
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+            if (hit.getValue() < queryTokens.size()) continue;
+            Entry entry = entries.get(hit.getKey());
+            if (entry == null) continue;
+            double score = score(queryTokens, entry.tokens);
+            if (score > 0) matches.add(new Match(entry, score));
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparing((Match m) -> !m.entry.verifiedTeacher)
+                        .thenComparing(Match::score, Comparator.reverseOrder())
+                        .thenComparing(m -> m.entry.displayName))
+                .limit(limit)
+                .map(m -> m.entry.id)
+                .toList();
+    }
+
+    // WRITES
+
+    public synchronized void put(User user) {
+        remove(user.getId());
+        String name = fullName(user);
+        Entry entry = new Entry(user.getId(), tokens(name), name.toLowerCase(Locale.ROOT),
+                user.getAccountType() == AccountType.TEACHER && user.isVerified());
+        entries.put(entry.id, entry);
+        for (String token : entry.tokens) {
+            for (String gram : trigrams(token)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(entry.id);
+            }
+        }
+    }
+
+    public synchronized void remove(Long userId) {
+        Entry old = entries.remove(userId);
+        if (old == null) return;
+        for (String token : old.tokens) {
+            for (String gram : trigrams(token)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) ids.remove(userId);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<User> users = userRepository.findAll();
+        users.forEach(this::put);
+        System.out.println("USER SEARCH INDEX BUILT with " + users.size() + " users");
+    }
+
+    // MATCHING
+
+    // Sum over query tokens of the best match against any name token; 0 if one token matches nothing
+    private static double score(List<String> queryTokens, List<String> nameTokens) {
+        double total = 0;
+        for (String q : queryTokens) {
+            double best = 0;
+            for (String name : nameTokens) {
+                best = Math.max(best, match(q, name));
+            }
+            if (best == 0) return 0;
+            total += best;
+        }
+        return total;
+    }
+
+    private static double match(String q, String name) {
+        if (name.equals(q)) return 1.0;
+        if (name.startsWith(q)) return 0.9;
+        if (q.length() >= 3 && name.contains(q)) return 0.6;
+        if (q.length() < 4) return 0;
+
+        int allowed = q.length() >= 8 ? 2 : 1;
+        // typo in a whole name ("jhon") or in a prefix of one ("jhonat" -> "jonathan")
+        int distance = Math.min(
+                editDistance(q, name, allowed),
+                editDistance(q, name.substring(0, Math.min(name.length(), q.length())), allowed));
+        return distance <= allowed ? 0.8 - 0.2 * distance : 0;
+    }
+
+    // Levenshtein distance with adjacent swaps counted as one edit; stops early past `max`
+    private static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            int rowMin = Integer.MAX_VALUE;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, d[i][j]);
+            }
+            if (rowMin > max) return max + 1;
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static String fullName(User user) {
+        String first = user.getFirstname() == null ? "" : user.getFirstname();
+        String last = user.getLastname() == null ? "" : user.getLastname();
+        return (first + " " + last).trim();
+    }
+
+    private static List<String> trigrams(String token) {
+        String padded = "$$" + token;
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Entry(Long id, List<String> tokens, String displayName, boolean verifiedTeacher) {
+    }
+
+    private record Match(Entry entry, double score) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.security.blog.feed;
+
+import com.example.security.blog.post.AuthorRecentPostsCache;
+import com.example.security.blog.post.PostRef;
+import com.example.security.blog.post.PostRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Read/write cost of the two following-feed strategies for one teacher with `followers` followers
+// (TimelineService), on in-memory stand-ins for the tables so it runs without a database:
+//
+//   pushWrite : one new post fanned out - a (NOT EXISTS-checked) timeline row for every follower,
+//               i.e. what timelineEntryRepository.fanOut inserts; each timeline is then pruned
+//   pushRead  : one page (PAGE + 1) of a follower's timeline - the range scan of findTimelinePage
+//   pullWrite : one new post by a celebrity - only the author's AuthorRecentPostsCache entry is
+//               dropped and reloaded (the real cache; the reload is the one indexed query, stubbed)
+//   pullRead  : one page for a follower of `celebrities` pulled authors - the real cache pages of each,
+//               merged newest first as TimelineService.merge does
+//
+// Rows written per post are the bigger half of the story and are not timed here: push writes
+// `followers` rows (10k at the default), pull writes none. The timings show the CPU side:
+// push makes writes O(followers) and reads O(page); pull makes writes O(1) and reads O(celebrities * page).
+//
+// Not a unit test; run with:
+//   mvn test-compile exec:java -Dexec.mainClass=com.example.security.blog.feed.FeedStrategyBenchmark -Dexec.classpathScope=test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedStrategyBenchmark {
+
+    private static final int PAGE = 20;
+    private static final int TIMELINE_ROWS = 100;   // kept per follower (prune)
+    private static final int RECENT_POSTS = 100;    // per author in AuthorRecentPostsCache
+
+    @Param({"10000"})
+    public int followers;
+
+    // pulled authors the reading follower follows
+    @Param({"1", "5", "20"})
+    public int celebrities;
+
+    // owner -> timeline rows, ordered like the (owner_id, post_created_at, post_id) index
+    private List<TreeSet<PostRef>> timelines;
+    private AuthorRecentPostsCache authorCache;
+    private LocalDateTime clock;
+    private long nextPostId;
+
+    @Setup
+    public void setUp() {
+        clock = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        timelines = new ArrayList<>(followers);
+        for (int f = 0; f < followers; f++) {
+            TreeSet<PostRef> timeline = new TreeSet<>(PostRef.NEWEST_FIRST);
+            for (int i = 0; i < TIMELINE_ROWS; i++) timeline.add(nextPost());
+            timelines.add(timeline);
+        }
+
+        Map<Long, List<PostRef>> byAuthor = new HashMap<>();
+        for (long author = 1; author <= celebrities; author++) {
+            List<PostRef> recent = new ArrayList<>();
+            for (int i = 0; i < RECENT_POSTS; i++) recent.add(nextPost());
+            recent.sort(PostRef.NEWEST_FIRST);
+            byAuthor.put(author, recent);
+        }
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findRecentRefsByAuthorId(anyLong(), any(Pageable.class)))
+                .thenAnswer(call -> byAuthor.get((Long) call.getArgument(0)));
+        authorCache = new AuthorRecentPostsCache(postRepository, RECENT_POSTS, 10_000, 300);
+        LongStream.rangeClosed(1, celebrities).forEach(authorCache::recent); // warm
+    }
+
+    private PostRef nextPost() {
+        clock = clock.plusSeconds(1);
+        return new PostRef(++nextPostId, clock);
+    }
+
+    @Benchmark
+    public int pushWrite() {
+        PostRef post = nextPost();
+        int rows = 0;
+        for (TreeSet<PostRef> timeline : timelines) {
+            if (timeline.add(post)) rows++;
+            if (timeline.size() > TIMELINE_ROWS) timeline.pollLast();
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<PostRef> pushRead() {
+        return timelines.get(0).stream().limit(PAGE + 1).toList();
+    }
+
+    @Benchmark
+    public int pullWrite() {
+        authorCache.invalidate(1L); // no transaction here: dropped at once
+        return authorCache.recent(1L).size();
+    }
+
+    @Benchmark
+    public List<PostRef> pullRead() {
+        List<PostRef> refs = new ArrayList<>();
+        for (long author = 1; author <= celebrities; author++) {
+            authorCache.page(author, null, PAGE + 1).ifPresent(refs::addAll);
+        }
+        return refs.stream().sorted(PostRef.NEWEST_FIRST).limit(PAGE + 1).toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FeedStrategyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.security.blog.like;
+
+import com.example.security.blog.post.HotPostRanking;
+import com.example.security.blog.post.Post;
+import com.example.security.blog.post.PostView;
+import com.example.security.blog.post.PostViewCache;
+import com.example.security.common.ContentVersions;
+import com.example.security.user.AccountType;
+import com.example.security.user.Role;
+import com.example.security.user.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LikeBufferTest {
+
+    private static final Long POST_ID = 10L;
+
+    @Mock private PostViewCache postViewCache;
+    @Mock private PostLikers postLikers;       // nobody has liked the post yet
+    @Mock private LikeWriter likeWriter;
+    @Mock private HotPostRanking hotPostRanking;
+    @Mock private ContentVersions contentVersions;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir Path logDir;
+
+    private LikeBuffer buffer;
+    // every batch handed to LikeWriter, copied at the time of the call
+    private final List<List<LikeLog.Entry>> batches = new ArrayList<>();
+
+    private final User asha = user(1L);
+    private final User ravi = user(2L);
+
+    @BeforeEach
+    void setUp() {
+        LikeLog likeLog = new LikeLog(logDir.toString(), false);
+        buffer = new LikeBuffer(postViewCache, postLikers, likeWriter, likeLog, hotPostRanking, contentVersions,
+                transactionManager, true, 50_000, 5);
+
+        PostView post = PostView.of(Post.builder()
+                .id(POST_ID).title("Placement drive").author(user(99L)).likeCount(5).createdAt(LocalDateTime.now())
+                .build());
+        when(postViewCache.get(POST_ID)).thenReturn(Optional.of(post));
+        when(postLikers.contains(eq(post), anyLong())).thenReturn(false);
+    }
+
+    @Test
+    void likeUnlikeLikeCoalescesIntoOneInsert() {
+        recordBatches();
+
+        buffer.set(POST_ID, asha, true, true);
+        buffer.set(POST_ID, asha, false, true);
+        var response = buffer.set(POST_ID, asha, true, true);
+
+        // seen at once, before any flush
+        assertThat(response.getLikeCount()).isEqualTo(6L);
+        assertThat(buffer.pendingState(POST_ID, asha.getId())).contains(true);
+
+        buffer.flush();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).singleElement().satisfies(entry -> {
+            assertThat(entry.userId()).isEqualTo(asha.getId());
+            assertThat(entry.liked()).isTrue();
+        });
+        assertThat(buffer.pendingDelta(POST_ID)).isZero();
+    }
+
+    @Test
+    void likeThenUnlikeWritesNothing() {
+        recordBatches();
+
+        buffer.set(POST_ID, asha, true, true);
+        buffer.set(POST_ID, asha, false, true);
+        buffer.flush();
+
+        assertThat(batches).singleElement().satisfies(batch -> assertThat(batch).isEmpty());
+        assertThat(buffer.pendingState(POST_ID, asha.getId())).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsRequeuedUnderNewerClicks() {
+        // First flush: while the batch is being written Asha takes her like back, then the write fails
+        when(likeWriter.write(anyCollection()))
+                .thenAnswer(call -> {
+                    batches.add(List.copyOf(call.<Collection<LikeLog.Entry>>getArgument(0)));
+                    buffer.set(POST_ID, asha, false, true);
+                    throw new IllegalStateException("database down");
+                })
+                .thenAnswer(call -> {
+                    batches.add(List.copyOf(call.<Collection<LikeLog.Entry>>getArgument(0)));
+                    return Map.of(POST_ID, 1L);
+                });
+
+        buffer.set(POST_ID, asha, true, true);
+        buffer.set(POST_ID, ravi, true, true);
+        buffer.flush();
+
+        // Asha's newer click cancels her failed like; Ravi's like is still pending
+        assertThat(buffer.pendingState(POST_ID, asha.getId())).isEmpty();
+        assertThat(buffer.pendingState(POST_ID, ravi.getId())).contains(true);
+        assertThat(buffer.pendingDelta(POST_ID)).isEqualTo(1L);
+
+        buffer.flush();
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).extracting(LikeLog.Entry::userId).containsExactlyInAnyOrder(asha.getId(), ravi.getId());
+        assertThat(batches.get(1)).singleElement().satisfies(entry -> {
+            assertThat(entry.userId()).isEqualTo(ravi.getId());
+            assertThat(entry.liked()).isTrue();
+        });
+        assertThat(buffer.pendingDelta(POST_ID)).isZero();
+    }
+
+    @Test
+    void clicksAreRejectedOnceTheBufferIsFullUntilAFlush() {
+        recordBatches();
+        buffer = new LikeBuffer(postViewCache, postLikers, likeWriter, new LikeLog(logDir.toString(), false),
+                hotPostRanking, contentVersions, transactionManager, true, 1, 5);
+
+        buffer.set(POST_ID, asha, true, true);
+        assertThatThrownBy(() -> buffer.set(POST_ID, ravi, true, true))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(batches).isEmpty(); // the clicking thread never writes
+
+        buffer.flush();
+        buffer.set(POST_ID, ravi, true, true);
+        assertThat(buffer.pendingState(POST_ID, ravi.getId())).contains(true);
+    }
+
+    @Test
+    void changeThatKeepsFailingIsDroppedAfterMaxAttempts() {
+        // Ravi's row can never be written (say his account was deleted); Asha's can, just not batched with his
+        when(likeWriter.write(anyCollection())).thenAnswer(call -> {
+            Collection<LikeLog.Entry> batch = call.getArgument(0);
+            if (batch.stream().anyMatch(entry -> entry.userId().equals(ravi.getId()))) {
+                throw new IllegalStateException("foreign key violation");
+            }
+            batches.add(List.copyOf(batch));
+            return Map.of(POST_ID, 1L);
+        });
+
+        buffer.set(POST_ID, asha, true, true);
+        buffer.set(POST_ID, ravi, true, true);
+        for (int attempt = 1; attempt < 5; attempt++) {
+            buffer.flush();
+            assertThat(buffer.pendingDelta(POST_ID)).isEqualTo(2L); // retried as a whole
+        }
+        buffer.flush();
+
+        assertThat(batches).singleElement().satisfies(batch ->
+                assertThat(batch).extracting(LikeLog.Entry::userId).containsExactly(asha.getId()));
+        assertThat(buffer.pendingState(POST_ID, ravi.getId())).isEmpty();
+        assertThat(buffer.pendingDelta(POST_ID)).isZero();
+    }
+
+    private void recordBatches() {
+        when(likeWriter.write(anyCollection())).thenAnswer(call -> {
+            batches.add(List.copyOf(call.<Collection<LikeLog.Entry>>getArgument(0)));
+            return Map.of();
+        });
+    }
+
+    private static User user(Long id) {
+        return User.builder().id(id).firstname("F" + id).lastname("L" + id)
+                .email(id + "@college.edu").role(Role.USER).accountType(AccountType.STUDENT).build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.security.blog.like;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LikeLogTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void replaysPreviousSegmentsInOrder() throws Exception {
+        LocalDateTime at = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LikeLog log = new LikeLog(dir.toString(), false);
+        log.sync(log.append(new LikeLog.Entry(10L, 1L, true, true, at)));
+        log.rotate();
+        log.sync(log.append(new LikeLog.Entry(10L, 1L, false, false, at.plusSeconds(1))));
+        log.close();
+
+        List<LikeLog.Entry> replayed = new LikeLog(dir.toString(), false).readPrevious();
+
+        assertThat(replayed).containsExactly(
+                new LikeLog.Entry(10L, 1L, true, true, at),
+                new LikeLog.Entry(10L, 1L, false, false, at.plusSeconds(1)));
+    }
+
+    @Test
+    void tornLastLineIsSkippedOnReplay() throws Exception {
+        LocalDateTime at = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LikeLog log = new LikeLog(dir.toString(), false);
+        log.sync(log.append(new LikeLog.Entry(10L, 1L, true, true, at)));
+        log.sync(log.append(new LikeLog.Entry(11L, 2L, true, false, at)));
+        log.close();
+        // crash in the middle of the next line: never synced, so never acknowledged
+        Files.writeString(dir.resolve("likes-1.log"), "12 3 1", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        List<LikeLog.Entry> replayed = new LikeLog(dir.toString(), false).readPrevious();
+
+        assertThat(replayed).extracting(LikeLog.Entry::postId).containsExactly(10L, 11L);
+    }
+}
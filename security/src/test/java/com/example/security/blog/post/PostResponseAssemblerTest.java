@@ -0,0 +1,99 @@
+package com.example.security.blog.post;
+
+import com.example.security.blog.like.LikeBuffer;
+import com.example.security.blog.like.PostLikers;
+import com.example.security.blog.post.dto.PostResponse;
+import com.example.security.user.AccountType;
+import com.example.security.user.Role;
+import com.example.security.user.entity.User;
+import com.example.security.user.follow.FollowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostResponseAssemblerTest {
+
+    @Mock private PostLikers postLikers;
+    @Mock private FollowRepository followRepository;
+    @Mock private LikeBuffer likeBuffer; // nothing buffered: no overlay
+
+    @InjectMocks private PostResponseAssembler assembler;
+
+    private final User viewer = user(100L, AccountType.STUDENT);
+    private final List<User> teachers = List.of(user(1L, AccountType.TEACHER), user(2L, AccountType.TEACHER));
+
+    @BeforeEach
+    void stubBulkQueries() {
+        when(postLikers.likedAmong(eq(viewer.getId()), anyList())).thenReturn(Set.of(1L));
+        when(followRepository.findFollowedIds(eq(viewer.getId()), anyCollection())).thenReturn(List.of(2L));
+    }
+
+    @Test
+    void queryCountIsConstantRegardlessOfPageSize() {
+        assembler.toResponses(posts(5), viewer);
+        assembler.toResponses(posts(50), viewer);
+
+        // Two pages -> exactly two calls each, whatever the number of posts
+        verify(postLikers, times(2)).likedAmong(any(), anyList());
+        verify(followRepository, times(2)).findFollowedIds(any(), anyCollection());
+        // ...and none of the per-post lookups (author and counts come with the view)
+        verifyNoMoreInteractions(postLikers, followRepository);
+    }
+
+    @Test
+    void hydratesCountsAndViewerFlags() {
+        List<PostResponse> responses = assembler.toResponses(posts(2), viewer);
+
+        PostResponse first = responses.get(0);
+        assertThat(first.getLikeCount()).isEqualTo(7L);
+        assertThat(first.getCommentCount()).isZero();
+        assertThat(first.getLikedByCurrentUser()).isTrue();
+        assertThat(first.getFollowingAuthor()).isFalse();
+
+        PostResponse second = responses.get(1);
+        assertThat(second.getLikeCount()).isZero();
+        assertThat(second.getCommentCount()).isEqualTo(3L);
+        assertThat(second.getLikedByCurrentUser()).isFalse();
+        assertThat(second.getFollowingAuthor()).isTrue();
+    }
+
+    // Post i is written by teacher (i % 2); post 1 has 7 likes, post 2 has 3 comments
+    private List<PostView> posts(int n) {
+        List<PostView> posts = new ArrayList<>();
+        for (long i = 1; i <= n; i++) {
+            posts.add(PostView.of(Post.builder()
+                    .id(i)
+                    .title("Post " + i)
+                    .author(teachers.get((int) ((i - 1) % 2)))
+                    .likeCount(i == 1 ? 7 : 0)
+                    .commentCount(i == 2 ? 3 : 0)
+                    .createdAt(LocalDateTime.now())
+                    .build()));
+        }
+        return posts;
+    }
+
+    private static User user(Long id, AccountType type) {
+        return User.builder().id(id).firstname("F" + id).lastname("L" + id)
+                .email(id + "@college.edu").role(Role.USER).accountType(type).build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Token work done by JwtAuthenticationFilter for one request (the user lookup is not included).
+//
+//   legacy        : what the filter used to do - 3 parses, each decoding the key and building a parser
+//   parseOnce     : JwtService with the claims cache off - one parse with the prebuilt parser
+//   cachedClaims  : JwtService with the cache on - a client's repeated requests with the same token
+//
+// Not a unit test; run with:
+//   mvn test-compile exec:java -Dexec.mainClass=com.example.security.jwt.JwtAuthBenchmark -Dexec.classpathScope=test
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private String secret;
+    private String token;
+    private UserDetails user;
+    private JwtService uncached;
+    private JwtService cached;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        secret = Encoders.BASE64.encode(key);
+
+        uncached = new JwtService(secret, 0, 300);
+        cached = new JwtService(secret, 10_000, 300);
+        user = User.withUsername("student@college.edu").password("x").authorities("USER").build();
+        token = cached.generateToken(Map.of("role", "USER", "accountType", "STUDENT", "verified", false), user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims().getSubject();              // extractUsername
+        boolean sameUser = legacyClaims().getSubject().equals(username); // isTokenValid -> extractUsername
+        Date expiration = legacyClaims().getExpiration();            // isTokenValid -> extractExpiration
+        return sameUser && !expiration.before(new Date()) && username.equals(user.getUsername());
+    }
+
+    @Benchmark
+    public boolean parseOnce() {
+        Claims claims = uncached.verify(token);
+        return uncached.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean cachedClaims() {
+        Claims claims = cached.verify(token);
+        return cached.isTokenValid(claims, user);
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder()
+                .setAllowedClockSkewSeconds(60)
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthBenchmark.class.getSimpleName()).build()).run();
+    }
+}